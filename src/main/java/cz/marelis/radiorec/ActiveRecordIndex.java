@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active and upcoming records of all stations. The index follows the item
+ * events of the station director and the status events of the records, so
+ * the records being written or waiting are known without going through the
+ * stations. Every change of them raises the version.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ActiveRecordIndex implements ResponseListener {
+
+    private static class Entry {
+
+        final Station station;
+        int status;
+        long start;
+
+        Entry(Station station) {
+            this.station = station;
+        }
+
+        boolean isShown() {
+            return Record.isActiveStatus(status) || isUpcoming();
+        }
+
+        boolean isUpcoming() {
+            return status == Record.RECORD_PENDING || status == Record.RECORD_DEFERRED;
+        }
+    }
+
+    // active ones first, then by the start
+    private final static Comparator<Map.Entry<Record, Entry>> ORDER = Comparator
+            .comparing((Map.Entry<Record, Entry> e) -> e.getValue().isUpcoming())
+            .thenComparingLong(e -> e.getValue().start);
+
+    private final Map<RecordDirector, Station> stations = new IdentityHashMap<>();
+
+    // every record of the stations, with its station
+    private final Map<Record, Entry> entries = new IdentityHashMap<>();
+
+    // records shown, active or upcoming
+    private final Map<Record, Entry> shown = new IdentityHashMap<>();
+
+    private int version;
+
+    /**
+     *
+     * @param station
+     */
+    public synchronized void addStation(Station station) {
+        stations.put(station.recordDirector, station);
+        station.recordDirector.forEach(record -> add(station, record));
+    }
+
+    /**
+     *
+     * @param station
+     */
+    public synchronized void removeStation(Station station) {
+        stations.remove(station.recordDirector);
+        station.recordDirector.forEach(this::remove);
+    }
+
+    /**
+     * Indexes the record again with its current status and times.
+     *
+     * @param station
+     * @param record
+     */
+    public synchronized void add(Station station, Record record) {
+        Entry entry = entries.computeIfAbsent(record, key -> new Entry(station));
+        update(record, entry);
+        if (entry.isShown()) {
+            // the times may have changed
+            version++;
+        }
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void remove(Record record) {
+        entries.remove(record);
+        if (shown.remove(record) != null) {
+            version++;
+        }
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void statusChanged(Record record) {
+        Entry entry = entries.get(record);
+        if (entry != null && entry.status != record.getStatus()) {
+            boolean wasShown = entry.isShown();
+            update(record, entry);
+            if (wasShown || entry.isShown()) {
+                version++;
+            }
+        }
+    }
+
+    private void update(Record record, Entry entry) {
+        entry.status = record.getStatus();
+        try {
+            entry.start = record.getTimeMillis(Record.PROP_TIME_START);
+        } catch (RuntimeException ex) {
+            // incomplete times
+            entry.start = Long.MAX_VALUE;
+        }
+        if (entry.isShown()) {
+            shown.put(record, entry);
+        } else {
+            shown.remove(record);
+        }
+    }
+
+    /**
+     *
+     * @return number of the changes of the active and upcoming records
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     *
+     * @param upcoming most upcoming records to include
+     * @return active records by their start, then the earliest upcoming ones
+     */
+    public synchronized List<Record> getSnapshot(int upcoming) {
+        List<Map.Entry<Record, Entry>> list = new ArrayList<>(shown.entrySet());
+        list.sort(ORDER);
+        List<Record> records = new ArrayList<>();
+        for (Map.Entry<Record, Entry> e : list) {
+            if (e.getValue().isUpcoming() && upcoming-- <= 0) {
+                break;
+            }
+            records.add(e.getKey());
+        }
+        return records;
+    }
+
+    /**
+     *
+     * @param record
+     * @return station of the record, or null
+     */
+    public synchronized Station getStation(Record record) {
+        Entry entry = entries.get(record);
+        return entry != null ? entry.station : null;
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    public void onResponseEvent(ResponseEvent re) {
+        Object source = re.getSource();
+        if (source instanceof StationDirector) {
+            switch (re.getId()) {
+                case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                    ResponseList.forEachItem(re.getObject(), item -> addStation((Station) item));
+                case ResponseList.EVT_ITEM_REMOVED ->
+                    ResponseList.forEachItem(re.getObject(), item -> removeStation((Station) item));
+                case ResponseList.EVT_ITEMS_BATCH -> {
+                    ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                    changes.getRemoved().forEach(item -> removeStation((Station) item));
+                    changes.getInserted().forEach(item -> addStation((Station) item));
+                    changes.getUpdated().forEach(item -> addStation((Station) item));
+                }
+                default -> {
+                }
+            }
+        } else if (source instanceof RecordDirector director) {
+            synchronized (this) {
+                Station station = stations.get(director);
+                if (station == null) {
+                    return;
+                }
+                switch (re.getId()) {
+                    case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                        ResponseList.forEachItem(re.getObject(), item -> add(station, (Record) item));
+                    case ResponseList.EVT_ITEM_REMOVED ->
+                        ResponseList.forEachItem(re.getObject(), item -> remove((Record) item));
+                    case ResponseList.EVT_ITEMS_BATCH -> {
+                        ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                        changes.getRemoved().forEach(item -> remove((Record) item));
+                        changes.getInserted().forEach(item -> add(station, (Record) item));
+                        changes.getUpdated().forEach(item -> add(station, (Record) item));
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } else if (source instanceof Record record && re.getId() == ResponseNode.EVT_STATUS_CHANGED) {
+            statusChanged(record);
+        }
+    }
+
+}
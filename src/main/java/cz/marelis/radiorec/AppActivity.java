@@ -26,6 +26,8 @@ import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.FileLock;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,7 +45,7 @@ public class AppActivity implements Runnable {
     private static final String LOCK_FILE_NAME = "RadioRec.lock";
     private static final String ARGS_FILE_NAME = "RadioRec.args";
 
-    private final ArrayList<AppActivityListener> listeners = new ArrayList<>();
+    private final List<AppActivityListener> listeners = new CopyOnWriteArrayList<>();
 
     private volatile boolean shutdown;
 
@@ -193,7 +195,7 @@ public class AppActivity implements Runnable {
         listeners.remove(listener);
     }
 
-    private synchronized void fireAppActivityArgsDelivered(String args[]) {
+    private void fireAppActivityArgsDelivered(String args[]) {
         listeners.forEach(listener -> listener.appActivityArgsDelivered(this, args));
     }
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deadline driven updates of programs and records. Every node is kept in a
+ * priority queue by the instant of its next update and the scheduler sleeps
+ * until the earliest one. Nodes are registered from the item events of the
+ * station director and rescheduled whenever their status changes.
+ *
+ * Updates run on the scheduler thread, so starting and finishing of
+ * recordings does not wait for the user interface. The lists are still
+ * changed on the event dispatch thread only, removals are passed there.
+ *
+ * The wall clock may jump, by a suspend of the computer or a step of the
+ * time synchronization. The scheduler wakes up at least once per heartbeat
+ * and compares the wall clock with the monotonic clock. After a jump every
+ * scheduled node is updated once at the new time, records still inside
+ * their window are started and passed ones are marked as missed.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class AppScheduler implements ResponseListener {
+
+    // a node due again right after its update waits at least this long
+    private final static long MIN_DELAY = 1000;
+    // longest sleep, the clocks are compared after each
+    private final static long HEARTBEAT = 5000;
+    // difference of the clocks taken as a jump
+    private final static long JUMP_THRESHOLD = 2000;
+
+    private static class Entry {
+
+        final long due;
+        final long seq;
+        final ResponseNode node;
+
+        Entry(long due, long seq, ResponseNode node) {
+            this.due = due;
+            this.seq = seq;
+            this.node = node;
+        }
+    }
+
+    private final ZoneId zone = ZoneId.of("UTC");
+
+    // replaced entries stay in the queue and are skipped when polled
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> {
+        int cmp = Long.compare(a.due, b.due);
+        return cmp != 0 ? cmp : Long.compare(a.seq, b.seq);
+    });
+    private final Map<ResponseNode, Entry> entries = new IdentityHashMap<>();
+    private final Map<ResponseNode, ResponseList<?>> owners = new IdentityHashMap<>();
+    private long sequence;
+    private boolean running = true;
+    private long clockWall = System.currentTimeMillis();
+    private long clockNanos = System.nanoTime();
+    private int clockJumps;
+    private final Thread thread;
+
+    /**
+     *
+     */
+    public AppScheduler() {
+        thread = new Thread(this::run, "RadioRec-Scheduler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     *
+     * @param station
+     */
+    public void addStation(Station station) {
+        station.programDirector.forEach(program -> schedule(program, station.programDirector));
+        station.recordDirector.forEach(record -> schedule(record, station.recordDirector));
+        station.ruleDirector.forEach(rule -> schedule(rule, station.ruleDirector));
+    }
+
+    /**
+     *
+     * @param station
+     */
+    public void removeStation(Station station) {
+        station.programDirector.forEach(this::unschedule);
+        station.recordDirector.forEach(this::unschedule);
+        station.ruleDirector.forEach(this::unschedule);
+    }
+
+    /**
+     *
+     * @param node
+     * @param owner list the node is removed from when marked for removal
+     */
+    public synchronized void schedule(ResponseNode node, ResponseList<?> owner) {
+        owners.put(node, owner);
+        // the first update sets the initial status
+        enqueue(node, System.currentTimeMillis());
+    }
+
+    /**
+     *
+     * @param node
+     */
+    public synchronized void unschedule(ResponseNode node) {
+        owners.remove(node);
+        entries.remove(node);
+    }
+
+    /**
+     *
+     * @return number of scheduled nodes
+     */
+    public synchronized int getScheduledCount() {
+        return entries.size();
+    }
+
+    /**
+     *
+     * @return number of wall clock jumps detected
+     */
+    public synchronized int getClockJumps() {
+        return clockJumps;
+    }
+
+    private synchronized void reschedule(ResponseNode node, ZonedDateTime time, boolean updated) {
+        if (!owners.containsKey(node)) {
+            return;
+        }
+        ZonedDateTime next;
+        try {
+            next = node.isRemove() ? time : node.getNextUpdate(time);
+        } catch (RuntimeException ex) {
+            // incomplete times, the node waits for a change
+            next = null;
+        }
+        if (next == null) {
+            entries.remove(node);
+            return;
+        }
+        long due = next.toInstant().toEpochMilli();
+        if (updated) {
+            due = Math.max(due, time.toInstant().toEpochMilli() + MIN_DELAY);
+        }
+        enqueue(node, due);
+    }
+
+    private void enqueue(ResponseNode node, long due) {
+        Entry old = entries.get(node);
+        if (old != null && old.due == due) {
+            return;
+        }
+        Entry entry = new Entry(due, sequence++, node);
+        entries.put(node, entry);
+        queue.add(entry);
+        if (queue.size() > 2 * entries.size() + 64) {
+            queue.clear();
+            queue.addAll(entries.values());
+        }
+        if (queue.peek() == entry) {
+            notifyAll();
+        }
+    }
+
+    private Entry peekValid() {
+        Entry head;
+        while ((head = queue.peek()) != null && entries.get(head.node) != head) {
+            queue.poll();
+        }
+        return head;
+    }
+
+    private void run() {
+        while (awaitDue()) {
+            dispatch();
+        }
+    }
+
+    private synchronized boolean awaitDue() {
+        while (running) {
+            try {
+                checkClock();
+                Entry head = peekValid();
+                if (head == null) {
+                    wait(HEARTBEAT);
+                } else {
+                    long delay = head.due - System.currentTimeMillis();
+                    if (delay <= 0) {
+                        return true;
+                    }
+                    wait(Math.min(delay, HEARTBEAT));
+                }
+            } catch (InterruptedException ex) {
+                Logger.getLogger(AppScheduler.class.getName()).log(Level.SEVERE, null, ex);
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void checkClock() {
+        long wall = System.currentTimeMillis();
+        long nanos = System.nanoTime();
+        long jump = (wall - clockWall) - (nanos - clockNanos) / 1_000_000;
+        clockWall = wall;
+        clockNanos = nanos;
+        if (Math.abs(jump) > JUMP_THRESHOLD) {
+            System.out.println("Clock jump: " + jump + " ms");
+            clockJumps++;
+            // a single update of every node at the new time, no catch up
+            List<Entry> jumped = new ArrayList<>(entries.values());
+            jumped.sort(queue.comparator());
+            entries.clear();
+            queue.clear();
+            jumped.forEach(entry -> enqueue(entry.node, wall));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch() {
+        ZonedDateTime time = now();
+        long millis = time.toInstant().toEpochMilli();
+        List<Entry> due = new ArrayList<>();
+        synchronized (this) {
+            Entry head;
+            while ((head = peekValid()) != null && head.due <= millis) {
+                queue.poll();
+                entries.remove(head.node);
+                due.add(head);
+            }
+        }
+        for (Entry entry : due) {
+            ResponseList<ResponseNode> owner;
+            synchronized (this) {
+                owner = (ResponseList<ResponseNode>) owners.get(entry.node);
+            }
+            if (owner == null) {
+                continue;
+            }
+            if (!entry.node.isRemove()) {
+                try {
+                    entry.node.update(time);
+                } catch (RuntimeException ex) {
+                    Logger.getLogger(AppScheduler.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            if (entry.node.isRemove()) {
+                // unscheduled by the item removed event
+                ResponseList.invokeLater(() -> owner.removeItem(entry.node));
+            } else {
+                reschedule(entry.node, time, true);
+            }
+        }
+    }
+
+    private ZonedDateTime now() {
+        return ZonedDateTime.ofInstant(Instant.now(), zone);
+    }
+
+    /**
+     *
+     */
+    public synchronized void shutdown() {
+        running = false;
+        notifyAll();
+    }
+
+    private void scheduleItem(ResponseNode item, ResponseList<?> list) {
+        if (item instanceof Station station) {
+            addStation(station);
+        } else {
+            schedule(item, list);
+        }
+    }
+
+    private void unscheduleItem(ResponseNode item) {
+        if (item instanceof Station station) {
+            removeStation(station);
+        } else {
+            unschedule(item);
+        }
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    public void onResponseEvent(ResponseEvent re) {
+        Object source = re.getSource();
+        if (source instanceof ResponseList<?> list) {
+            switch (re.getId()) {
+                case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                    ResponseList.forEachItem(re.getObject(), item -> scheduleItem(item, list));
+                case ResponseList.EVT_ITEM_REMOVED ->
+                    ResponseList.forEachItem(re.getObject(), this::unscheduleItem);
+                case ResponseList.EVT_ITEMS_BATCH -> {
+                    ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                    changes.getRemoved().forEach(this::unscheduleItem);
+                    changes.getInserted().forEach(item -> scheduleItem(item, list));
+                    changes.getUpdated().forEach(item -> scheduleItem(item, list));
+                }
+                default -> {
+                }
+            }
+        } else if (source instanceof Program || source instanceof Record || source instanceof RecordRule) {
+            if (re.getId() == ResponseNode.EVT_STATUS_CHANGED || re.getId() == ResponseNode.EVT_REMOVE_CHANGED) {
+                reschedule((ResponseNode) source, now(), false);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Capacity planning of the recording schedule. All pending records of all
+ * stations and the occurrences of their rules within the window are swept by
+ * their start and finish (including the time append) to find the peak number
+ * of concurrent streams, the peak bandwidth and the disk space needed.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class CapacityPlanner {
+
+    /**
+     * Default window of the plan
+     */
+    public final static Duration PLAN_WINDOW = Duration.ofDays(7);
+
+    /**
+     * Time window with two or more recordings running at once.
+     */
+    public static class Overlap {
+
+        /**
+         *
+         */
+        public final Instant start;
+
+        /**
+         *
+         */
+        public Instant finish;
+
+        /**
+         *
+         */
+        public int peakStreams;
+
+        /**
+         *
+         */
+        public final Set<Record> records = new LinkedHashSet<>();
+
+        Overlap(Instant start) {
+            this.start = start;
+        }
+    }
+
+    // start or finish of a record in the sweep
+    private static class Event {
+
+        final Instant time;
+        final boolean start;
+        final Record record;
+        final int rate;
+
+        Event(Instant time, boolean start, Record record, int rate) {
+            this.time = time;
+            this.start = start;
+            this.record = record;
+            this.rate = rate;
+        }
+    }
+
+    private final ZoneId zone;
+    private final RecordAdmission admission;
+    private final List<Record> records = new ArrayList<>();
+    private final Map<Record, Station> stations = new IdentityHashMap<>();
+
+    private Instant windowStart;
+    private Instant windowFinish;
+    private int occurrences;
+
+    private int peakStreams;
+    private Instant peakStreamsTime;
+    private int peakBandwidth;
+    private Instant peakBandwidthTime;
+    private long totalBytes;
+    private final TreeMap<LocalDate, Long> bytesPerDay = new TreeMap<>();
+    private final TreeMap<String, Long> bytesPerDir = new TreeMap<>();
+    private final List<Overlap> overlaps = new ArrayList<>();
+
+    /**
+     *
+     * @param zone time zone of the per day report
+     * @param admission source of known bitrates
+     */
+    public CapacityPlanner(ZoneId zone, RecordAdmission admission) {
+        this.zone = zone;
+        this.admission = admission;
+    }
+
+    /**
+     *
+     * @param stationDirector
+     * @param from start of the plan window
+     * @return
+     */
+    public CapacityPlanner plan(StationDirector stationDirector, ZonedDateTime from) {
+        return plan(stationDirector, from, from.plus(PLAN_WINDOW));
+    }
+
+    /**
+     * Records finished before the window or starting after it are ignored,
+     * the rules are expanded over the whole window.
+     *
+     * @param stationDirector
+     * @param from start of the plan window
+     * @param to finish of the plan window
+     * @return
+     */
+    public CapacityPlanner plan(StationDirector stationDirector, ZonedDateTime from, ZonedDateTime to) {
+        records.clear();
+        stations.clear();
+        windowStart = from.toInstant();
+        windowFinish = to.toInstant();
+        occurrences = 0;
+        for (Station station : stationDirector) {
+            for (Record record : station.recordDirector) {
+                if ((record.isStatus(Record.RECORD_PENDING) || record.isStatus(Record.RECORD_DEFERRED)
+                        || record.isStatus(Record.RECORD_RUNNING)) && getFinish(record).isAfter(windowStart)
+                        && getStart(record).isBefore(windowFinish)) {
+                    records.add(record);
+                    stations.put(record, station);
+                }
+            }
+            for (Record record : station.ruleDirector.getOccurrences(from, to)) {
+                if (getFinish(record).isAfter(windowStart)) {
+                    records.add(record);
+                    stations.put(record, station);
+                    occurrences++;
+                }
+            }
+        }
+        sweep();
+        return this;
+    }
+
+    private Instant getStart(Record record) {
+        return Instant.ofEpochMilli(record.getTimeMillis(Record.PROP_TIME_START));
+    }
+
+    private Instant getFinish(Record record) {
+        return Instant.ofEpochMilli(record.getTimeMillis(Record.PROP_TIME_FINISH)).plus(Record.getTimeAppend());
+    }
+
+    private void sweep() {
+        peakStreams = 0;
+        peakBandwidth = 0;
+        totalBytes = 0;
+        bytesPerDay.clear();
+        bytesPerDir.clear();
+        overlaps.clear();
+
+        // finishes sort first at the same instant
+        List<Event> events = new ArrayList<>(records.size() * 2);
+        for (Record record : records) {
+            Instant start = getStart(record);
+            if (start.isBefore(windowStart)) {
+                start = windowStart;
+            }
+            Instant finish = getFinish(record);
+            if (finish.isAfter(windowFinish)) {
+                finish = windowFinish;
+            }
+            if (!finish.isAfter(start)) {
+                continue;
+            }
+            int rate = admission.getBitrate(record);
+            events.add(new Event(start, true, record, rate));
+            events.add(new Event(finish, false, record, rate));
+            addBytes(record, start, finish, rate);
+        }
+        events.sort(Comparator.comparing((Event e) -> e.time).thenComparing(e -> e.start));
+
+        Set<Record> running = new LinkedHashSet<>();
+        int bandwidth = 0;
+        Overlap overlap = null;
+        for (Event event : events) {
+            Instant time = event.time;
+            if (event.start) {
+                running.add(event.record);
+                bandwidth += event.rate;
+            } else {
+                running.remove(event.record);
+                bandwidth -= event.rate;
+            }
+            int streams = running.size();
+            if (streams > peakStreams) {
+                peakStreams = streams;
+                peakStreamsTime = time;
+            }
+            if (bandwidth > peakBandwidth) {
+                peakBandwidth = bandwidth;
+                peakBandwidthTime = time;
+            }
+            if (streams >= 2) {
+                if (overlap == null) {
+                    overlap = new Overlap(time);
+                    overlaps.add(overlap);
+                }
+                overlap.records.addAll(running);
+                overlap.peakStreams = Math.max(overlap.peakStreams, streams);
+            } else if (overlap != null) {
+                overlap.finish = time;
+                overlap = null;
+            }
+        }
+    }
+
+    private void addBytes(Record record, Instant start, Instant finish, int rate) {
+        long bytesPerSecond = rate * 1000L / 8;
+        String dir = record.props.getProperty(Record.PROP_FILE_DIR, "");
+        long seconds = Duration.between(start, finish).toSeconds();
+        totalBytes += seconds * bytesPerSecond;
+        bytesPerDir.merge(dir, seconds * bytesPerSecond, Long::sum);
+        // split by local days
+        Instant pos = start;
+        while (pos.isBefore(finish)) {
+            LocalDate day = LocalDate.ofInstant(pos, zone);
+            Instant next = day.plusDays(1).atStartOfDay(zone).toInstant();
+            Instant end = next.isBefore(finish) ? next : finish;
+            bytesPerDay.merge(day, Duration.between(pos, end).toSeconds() * bytesPerSecond, Long::sum);
+            pos = end;
+        }
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<Record> getRecords() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     *
+     * @return records created from the rules for the plan only
+     */
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public int getPeakStreams() {
+        return peakStreams;
+    }
+
+    /**
+     *
+     * @return kbit/s
+     */
+    public int getPeakBandwidth() {
+        return peakBandwidth;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Map<LocalDate, Long> getBytesPerDay() {
+        return Collections.unmodifiableMap(bytesPerDay);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Map<String, Long> getBytesPerDir() {
+        return Collections.unmodifiableMap(bytesPerDir);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<Overlap> getOverlaps() {
+        return Collections.unmodifiableList(overlaps);
+    }
+
+    /**
+     *
+     * @return plain text report in the language of the app
+     */
+    public String getReport() {
+        ResourceBundle bundle = RadioRec.getInstance().currentBundle;
+        DateTimeFormatter time = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm:ss").withZone(zone);
+        int budget = admission.getBudget();
+        StringBuilder sb = new StringBuilder();
+        if (windowStart != null) {
+            sb.append(format(bundle, "Plan.Report.Window", time.format(windowStart), time.format(windowFinish)))
+                    .append('\n');
+        }
+        sb.append(format(bundle, "Plan.Report.Records", records.size())).append('\n');
+        sb.append(format(bundle, "Plan.Report.Occurrences", occurrences)).append('\n');
+        sb.append(peakStreamsTime != null
+                ? format(bundle, "Plan.Report.PeakStreamsAt", peakStreams, time.format(peakStreamsTime))
+                : format(bundle, "Plan.Report.PeakStreams", peakStreams));
+        sb.append('\n');
+        sb.append(peakBandwidthTime != null
+                ? format(bundle, "Plan.Report.PeakBandwidthAt", peakBandwidth, time.format(peakBandwidthTime))
+                : format(bundle, "Plan.Report.PeakBandwidth", peakBandwidth));
+        if (budget > 0) {
+            sb.append(format(bundle, peakBandwidth > budget ? "Plan.Report.BudgetExceeded" : "Plan.Report.Budget", budget));
+        }
+        sb.append('\n');
+        sb.append(format(bundle, "Plan.Report.DiskSpace", formatBytes(totalBytes))).append('\n');
+        sb.append('\n').append(bundle.getString("Plan.Report.PerDay")).append('\n');
+        bytesPerDay.forEach((day, bytes) -> sb.append("  ").append(day).append("  ")
+                .append(formatBytes(bytes)).append('\n'));
+        sb.append('\n').append(bundle.getString("Plan.Report.PerDirectory")).append('\n');
+        bytesPerDir.forEach((dir, bytes) -> sb.append("  ").append(dir.isEmpty() ? "?" : dir).append("  ")
+                .append(formatBytes(bytes)).append('\n'));
+        sb.append('\n').append(format(bundle, "Plan.Report.Overlaps", overlaps.size())).append('\n');
+        for (Overlap overlap : overlaps) {
+            sb.append("  ").append(format(bundle, "Plan.Report.Overlap", time.format(overlap.start),
+                    overlap.finish != null ? time.format(overlap.finish) : "?", overlap.peakStreams)).append('\n');
+            for (Record record : overlap.records) {
+                Station station = stations.get(record);
+                sb.append("    ").append(format(bundle, "Plan.Report.OverlapRecord",
+                        station.props.getProperty(Station.PROP_STATION_NAME),
+                        record.props.getProperty(Record.PROP_TITLE), admission.getBitrate(record))).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // numbers are passed as text, without grouping
+    private static String format(ResourceBundle bundle, String key, Object... args) {
+        Object[] values = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        return MessageFormat.format(bundle.getString(key), values);
+    }
+
+    /**
+     *
+     * @param bytes
+     * @return
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KiB", bytes / 1024.0);
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format("%.1f MiB", bytes / (1024.0 * 1024));
+        }
+        return String.format("%.2f GiB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Display strings of a program or a record for its table cell. They are made
+ * again only after a change of the properties or of the time zone, painting
+ * a cell just reads them.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class CellText {
+
+    private final static DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final ZoneId zone;
+
+    private final int version;
+
+    /**
+     * Start time in the zone.
+     */
+    public final String time;
+
+    /**
+     * Planned length in minutes.
+     */
+    public final String duration;
+
+    /**
+     *
+     */
+    public final String title;
+
+    /**
+     * Comment, a space when empty so the line keeps its height.
+     */
+    public final String comment;
+
+    /**
+     * Finish time in epoch milliseconds, or 0 when incomplete.
+     */
+    public final long finish;
+
+    private CellText(ResponseNode node, ZoneId zone, int version) {
+        this.zone = zone;
+        this.version = version;
+        String timeText = "";
+        String durationText = "";
+        long finishMillis = 0;
+        try {
+            long start = node.getTimeMillis(Program.PROP_TIME_START);
+            finishMillis = node.getTimeMillis(Program.PROP_TIME_FINISH);
+            timeText = TIME_FORMAT.format(Instant.ofEpochMilli(start).atZone(zone));
+            durationText = minutes(finishMillis - start);
+        } catch (RuntimeException ex) {
+            // incomplete times
+        }
+        this.time = timeText;
+        this.duration = durationText;
+        this.finish = finishMillis;
+        this.title = node.props.getProperty(Program.PROP_TITLE, "");
+        String text = node.props.getProperty(Program.PROP_COMMENT, "");
+        this.comment = text.isEmpty() ? " " : text;
+    }
+
+    /**
+     *
+     * @param node
+     * @param zone
+     * @param old strings made before, or null
+     * @return the old strings when still valid, otherwise new ones
+     */
+    public static CellText of(ResponseNode node, ZoneId zone, CellText old) {
+        // read before the properties, a change meanwhile makes them again next time
+        int version = node.props.getModCount();
+        if (old != null && old.version == version && old.zone.equals(zone)) {
+            return old;
+        }
+        return new CellText(node, zone, version);
+    }
+
+    /**
+     *
+     * @param millis
+     * @return whole minutes of the time, as shown in the cells
+     */
+    public static String minutes(long millis) {
+        return (millis / 60000) + " min.";
+    }
+
+}
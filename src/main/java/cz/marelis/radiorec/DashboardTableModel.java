@@ -0,0 +1,267 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active and upcoming records of all stations with the stats of their
+ * recording. The rows follow the active record index and are brought up to
+ * date only after it changed, on every refresh just the rows of the active
+ * records are sampled and repainted.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class DashboardTableModel extends ResponseTableModel<Record> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     *
+     */
+    public final static int COLUMN_STATION = 0;
+
+    /**
+     *
+     */
+    public final static int COLUMN_TITLE = 1;
+
+    /**
+     *
+     */
+    public final static int COLUMN_STATUS = 2;
+
+    /**
+     *
+     */
+    public final static int COLUMN_START = 3;
+
+    /**
+     *
+     */
+    public final static int COLUMN_ELAPSED = 4;
+
+    /**
+     *
+     */
+    public final static int COLUMN_SIZE = 5;
+
+    /**
+     *
+     */
+    public final static int COLUMN_RATE = 6;
+
+    /**
+     *
+     */
+    public final static int COLUMN_GAPS = 7;
+
+    private final transient RadioRec radioRec = RadioRec.getInstance();
+
+    private final transient ActiveRecordIndex index;
+
+    private final int upcoming;
+
+    private int version = -1;
+
+    // last sample of the active records: bytes, nano time and bytes per second
+    private transient Map<Record, long[]> samples = new IdentityHashMap<>();
+
+    private final String[] columnNames = {
+        radioRec.currentBundle.getString("Table.ColumnName.Station"),
+        radioRec.currentBundle.getString("Table.ColumnName.Title"),
+        radioRec.currentBundle.getString("Table.ColumnName.Status"),
+        radioRec.currentBundle.getString("Table.ColumnName.Start"),
+        radioRec.currentBundle.getString("Table.ColumnName.Elapsed"),
+        radioRec.currentBundle.getString("Table.ColumnName.Size"),
+        radioRec.currentBundle.getString("Table.ColumnName.Rate"),
+        radioRec.currentBundle.getString("Table.ColumnName.Gaps")};
+
+    private final String statusPending = radioRec.currentBundle.getString("Dashboard.Status.Pending");
+    private final String statusStartup = radioRec.currentBundle.getString("Dashboard.Status.Startup");
+    private final String statusRunning = radioRec.currentBundle.getString("Dashboard.Status.Running");
+    private final String statusStopping = radioRec.currentBundle.getString("Dashboard.Status.Stopping");
+    private final String statusDeferred = radioRec.currentBundle.getString("Dashboard.Status.Deferred");
+
+    /**
+     *
+     * @param index
+     * @param upcoming most upcoming records shown
+     */
+    public DashboardTableModel(ActiveRecordIndex index, int upcoming) {
+        this.index = index;
+        this.upcoming = upcoming;
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    protected List<Record> getSnapshot() {
+        return index.getSnapshot(upcoming);
+    }
+
+    /**
+     * Brings the rows up to date when the index changed, then samples the
+     * active records and repaints their rows.
+     */
+    public void refresh() {
+        int current = index.getVersion();
+        if (current != version) {
+            version = current;
+            listChanged();
+        }
+        long now = System.nanoTime();
+        Map<Record, long[]> next = new IdentityHashMap<>();
+        List<Record> active = new ArrayList<>();
+        int count = getRowCount();
+        for (int row = 0; row < count; row++) {
+            Record record = getItem(row);
+            if (!Record.isActiveStatus(record.getStatus())) {
+                continue;
+            }
+            long bytes = record.getBytesRecorded();
+            long[] last = samples.get(record);
+            long rate = -1;
+            if (last != null && now > last[1] && bytes >= last[0]) {
+                rate = (bytes - last[0]) * 1_000_000_000L / (now - last[1]);
+            }
+            next.put(record, new long[]{bytes, now, rate});
+            active.add(record);
+        }
+        samples = next;
+        itemsUpdated(active);
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     *
+     * @param column
+     * @return
+     */
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     *
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Record record = getItem(rowIndex);
+        if (record == null) {
+            return "";
+        }
+        boolean active = Record.isActiveStatus(record.getStatus());
+        switch (columnIndex) {
+            case COLUMN_STATION -> {
+                Station station = index.getStation(record);
+                return station != null ? station.props.getProperty(Station.PROP_STATION_NAME, "") : "";
+            }
+            case COLUMN_TITLE -> {
+                return record.getCellText(radioRec.getTimeZone()).title;
+            }
+            case COLUMN_STATUS -> {
+                return getStatusText(record.getStatus());
+            }
+            case COLUMN_START -> {
+                return record.getCellText(radioRec.getTimeZone()).time;
+            }
+            case COLUMN_ELAPSED -> {
+                long started = record.getRecordingStarted();
+                return active && started > 0 ? formatElapsed(System.currentTimeMillis() - started) : "";
+            }
+            case COLUMN_SIZE -> {
+                return active ? CapacityPlanner.formatBytes(record.getBytesRecorded()) : "";
+            }
+            case COLUMN_RATE -> {
+                long[] sample = samples.get(record);
+                return sample != null && sample[2] >= 0 ? (sample[2] * 8 / 1000) + " kbit/s" : "";
+            }
+            case COLUMN_GAPS -> {
+                return active ? String.valueOf(record.getGapsRecorded()) : "";
+            }
+            default -> {
+                return "";
+            }
+        }
+    }
+
+    private String getStatusText(int status) {
+        return switch (status) {
+            case Record.RECORD_PENDING ->
+                statusPending;
+            case Record.RECORD_STARTUP ->
+                statusStartup;
+            case Record.RECORD_RUNNING ->
+                statusRunning;
+            case Record.RECORD_STOPPING ->
+                statusStopping;
+            case Record.RECORD_DEFERRED ->
+                statusDeferred;
+            default ->
+                "";
+        };
+    }
+
+    /**
+     *
+     * @param millis
+     * @return the time as hours, minutes and seconds
+     */
+    public static String formatElapsed(long millis) {
+        long seconds = Math.max(0, millis / 1000);
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+}
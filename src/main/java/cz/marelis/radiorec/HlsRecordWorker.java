@@ -0,0 +1,539 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingWorker;
+
+/**
+ * Recording of a HTTP Live Streaming station. The media playlist is polled,
+ * segments are fetched in parallel within a bounded window and appended to
+ * the output in the order of their media sequence numbers.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class HlsRecordWorker extends SwingWorker<Void, ResponseEvent> implements RecordTask {
+
+    // segments fetched at once
+    private final static int PREFETCH_WINDOW = 3;
+    // live recordings start this many segments before the end of the playlist
+    private final static int LIVE_EDGE_SEGMENTS = 3;
+    private final static int SEGMENT_RETRIES = 2;
+    private final static int CONNECT_TIMEOUT = 10_000;
+    private final static int READ_TIMEOUT = 10_000;
+    private final static long DEFAULT_TARGET_DURATION = 6_000;
+
+    static class Segment {
+
+        final long sequence;
+        final String uri;
+        final double duration;
+
+        Segment(long sequence, String uri, double duration) {
+            this.sequence = sequence;
+            this.uri = uri;
+            this.duration = duration;
+        }
+    }
+
+    static class Playlist {
+
+        final List<Segment> segments = new ArrayList<>();
+        final List<String> variants = new ArrayList<>();
+        final List<Integer> bandwidths = new ArrayList<>();
+        long targetDuration = DEFAULT_TARGET_DURATION;
+        boolean endList;
+        String unsupported;
+    }
+
+    private final Record record;
+    private final List<String> links;
+    private final File tempFile;
+    private final AtomicBoolean finish;
+    private final AtomicBoolean cancel;
+    private final RecordAdmission admission;
+    private final MirrorHealth health;
+    private final ExecutorService fetcher;
+    private final TreeMap<Long, Future<byte[]>> window = new TreeMap<>();
+    private String extension;
+    // link of the media playlist after following a master playlist
+    private String resolvedLink;
+    private long nextFetch = -1;
+    private long nextWrite = -1;
+    private long segments;
+    private long gaps;
+
+    /**
+     *
+     * @param record
+     */
+    public HlsRecordWorker(Record record) {
+        this(record, getTempFile());
+    }
+
+    /**
+     *
+     * @param record
+     * @param tempFile file the segments are written to while recording
+     */
+    HlsRecordWorker(Record record, File tempFile) {
+        this.record = record;
+        this.links = record.getUrls();
+        this.tempFile = tempFile;
+        this.finish = new AtomicBoolean(false);
+        this.cancel = new AtomicBoolean(false);
+        this.admission = RadioRec.getInstance().recordAdmission;
+        this.health = RadioRec.getInstance().mirrorHealth;
+        this.fetcher = Executors.newFixedThreadPool(PREFETCH_WINDOW, runnable -> {
+            Thread thread = new Thread(runnable, "RadioRec-HLS");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     *
+     * @param link
+     * @return true when the link points to a HLS playlist
+     */
+    public static boolean isHlsLink(String link) {
+        String path = link.trim().toLowerCase(Locale.ROOT);
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return path.endsWith(".m3u8");
+    }
+
+    /**
+     *
+     * @return
+     * @throws Exception
+     */
+    @Override
+    protected Void doInBackground() throws Exception {
+        OutputStream outputStream = null;
+        String playlistLink = null;
+        try {
+            while (!finish.get() && !cancel.get()) {
+                long pollStart = System.currentTimeMillis();
+                Playlist playlist = null;
+                if (playlistLink != null) {
+                    playlist = loadPlaylist(playlistLink);
+                }
+                if (playlist == null) {
+                    // first load, or the current link failed
+                    String failed = playlistLink;
+                    playlistLink = null;
+                    for (String link : health.rank(links)) {
+                        playlist = loadMediaPlaylist(link);
+                        if (playlist != null) {
+                            playlistLink = resolvedLink;
+                            if (failed != null && !failed.equals(playlistLink)) {
+                                System.out.println("HLS playlist switched to " + playlistLink);
+                            }
+                            break;
+                        }
+                    }
+                }
+                if (playlist == null) {
+                    if (outputStream == null) {
+                        System.out.println("HLS playlist failed");
+                        record.setStatus(Record.RECORD_FAILED);
+                        return null;
+                    }
+                    Thread.sleep(DEFAULT_TARGET_DURATION / 2);
+                    continue;
+                }
+                if (playlist.unsupported != null) {
+                    System.out.println("HLS not supported: " + playlist.unsupported);
+                    if (outputStream != null) {
+                        break;
+                    }
+                    record.setStatus(Record.RECORD_FAILED);
+                    return null;
+                }
+
+                if (outputStream == null && !playlist.segments.isEmpty()) {
+                    extension = getExtension(playlist.segments.get(0).uri);
+                    outputStream = new FileOutputStream(tempFile);
+                    record.setStatus(Record.RECORD_RUNNING);
+                    int first = playlist.endList ? 0 : Math.max(0, playlist.segments.size() - LIVE_EDGE_SEGMENTS);
+                    nextFetch = playlist.segments.get(first).sequence;
+                    nextWrite = nextFetch;
+                }
+
+                if (outputStream != null) {
+                    fetchAndWrite(playlist, outputStream);
+                }
+
+                if (playlist.endList && window.isEmpty() && outputStream != null) {
+                    long last = playlist.segments.isEmpty() ? -1
+                            : playlist.segments.get(playlist.segments.size() - 1).sequence;
+                    if (nextWrite > last) {
+                        System.out.println("HLS playlist ended");
+                        break;
+                    }
+                }
+
+                // the playlist is reloaded once per target duration
+                long wait = playlist.targetDuration - (System.currentTimeMillis() - pollStart);
+                while (wait > 0 && !finish.get() && !cancel.get()) {
+                    Thread.sleep(Math.min(wait, 200));
+                    wait = playlist.targetDuration - (System.currentTimeMillis() - pollStart);
+                }
+            }
+            if (outputStream != null && !cancel.get()) {
+                // segments fetched before the finish belong to the recording
+                while (!window.isEmpty()) {
+                    writeNext(outputStream);
+                }
+            }
+        } finally {
+            fetcher.shutdownNow();
+            if (outputStream != null) {
+                outputStream.close();
+            }
+        }
+
+        System.out.println("Done, segments: " + segments + ", gaps: " + gaps);
+
+        if (outputStream == null) {
+            return null;
+        }
+
+        if (cancel.get()) {
+            Files.delete(tempFile.toPath());
+            record.setStatus(Record.RECORD_CANCELED);
+            return null;
+        }
+
+        record.setStatus(Record.RECORD_STOPPING);
+        File recFile = getRecFile();
+        Path parent = Path.of(recFile.getParent());
+        if (Files.notExists(parent)) {
+            Files.createDirectories(parent);
+        }
+        Files.move(tempFile.toPath(), recFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return null;
+    }
+
+    /**
+     * Keeps the prefetch window full and appends finished segments in
+     * sequence order.
+     */
+    private void fetchAndWrite(Playlist playlist, OutputStream outputStream)
+            throws IOException, InterruptedException {
+        Map<Long, Segment> known = new TreeMap<>();
+        for (Segment segment : playlist.segments) {
+            known.put(segment.sequence, segment);
+        }
+        if (!playlist.segments.isEmpty() && nextFetch < playlist.segments.get(0).sequence) {
+            // fell behind the sliding playlist
+            long first = playlist.segments.get(0).sequence;
+            System.out.println("HLS segments lost: " + (first - nextFetch));
+            nextFetch = first;
+        }
+        while (!finish.get() && !cancel.get()) {
+            while (window.size() < PREFETCH_WINDOW && known.containsKey(nextFetch)) {
+                Segment segment = known.get(nextFetch);
+                window.put(segment.sequence, fetcher.submit(() -> fetchSegment(segment)));
+                nextFetch++;
+            }
+            if (window.isEmpty()) {
+                return;
+            }
+            writeNext(outputStream);
+        }
+    }
+
+    /**
+     * Waits for the first segment of the window and appends it.
+     */
+    private void writeNext(OutputStream outputStream) throws IOException, InterruptedException {
+        Map.Entry<Long, Future<byte[]>> head = window.firstEntry();
+        byte[] data;
+        try {
+            data = head.getValue().get(READ_TIMEOUT * (SEGMENT_RETRIES + 1L), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException ex) {
+            head.getValue().cancel(true);
+            data = null;
+        }
+        window.remove(head.getKey());
+        if (head.getKey() > nextWrite) {
+            gaps += head.getKey() - nextWrite;
+            record.addGapsRecorded(head.getKey() - nextWrite);
+        }
+        if (data != null) {
+            outputStream.write(data);
+            record.addBytesRecorded(data.length);
+            segments++;
+        } else {
+            System.out.println("HLS segment skipped: " + head.getKey());
+            gaps++;
+            record.addGapsRecorded(1);
+        }
+        nextWrite = head.getKey() + 1;
+    }
+
+    private byte[] fetchSegment(Segment segment) throws IOException {
+        IOException last = null;
+        for (int attempt = 0; attempt <= SEGMENT_RETRIES; attempt++) {
+            try {
+                byte[] data = stripId3(download(segment.uri));
+                if (segment.duration > 0) {
+                    admission.updateBitrate(record, (int) (data.length * 8 / segment.duration / 1000));
+                }
+                return data;
+            } catch (IOException ex) {
+                last = ex;
+            }
+        }
+        throw last;
+    }
+
+    private Playlist loadMediaPlaylist(String link) {
+        long start = System.nanoTime();
+        Playlist playlist = loadPlaylist(link);
+        if (playlist == null) {
+            health.failure(link);
+            return null;
+        }
+        health.success(link, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        resolvedLink = link;
+        if (!playlist.variants.isEmpty()) {
+            // master playlist, the variant with the highest bandwidth is recorded
+            int best = 0;
+            for (int idx = 1; idx < playlist.variants.size(); idx++) {
+                if (playlist.bandwidths.get(idx) > playlist.bandwidths.get(best)) {
+                    best = idx;
+                }
+            }
+            int bandwidth = playlist.bandwidths.get(best);
+            if (bandwidth > 0) {
+                record.props.setProperty(Record.PROP_BITRATE, String.valueOf(bandwidth / 1000));
+                admission.updateBitrate(record, bandwidth / 1000);
+            }
+            resolvedLink = playlist.variants.get(best);
+            playlist = loadPlaylist(resolvedLink);
+        }
+        return playlist;
+    }
+
+    private Playlist loadPlaylist(String link) {
+        try {
+            String text = new String(download(link), StandardCharsets.UTF_8);
+            return parsePlaylist(link, text);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.out.println("HLS playlist failed " + link + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    static Playlist parsePlaylist(String link, String text) {
+        Playlist playlist = new Playlist();
+        URI base = URI.create(link);
+        long sequence = 0;
+        double duration = 0;
+        int bandwidth = -1;
+        for (String line : text.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("#EXT-X-TARGETDURATION:")) {
+                playlist.targetDuration = Math.max(1_000, Long.parseLong(line.substring(22).trim()) * 1000);
+            } else if (line.startsWith("#EXT-X-MEDIA-SEQUENCE:")) {
+                sequence = Long.parseLong(line.substring(22).trim());
+            } else if (line.startsWith("#EXTINF:")) {
+                String value = line.substring(8);
+                int comma = value.indexOf(',');
+                duration = Double.parseDouble(comma >= 0 ? value.substring(0, comma) : value);
+            } else if (line.startsWith("#EXT-X-STREAM-INF:")) {
+                bandwidth = getAttributeInt(line.substring(18), "BANDWIDTH");
+            } else if (line.startsWith("#EXT-X-ENDLIST")) {
+                playlist.endList = true;
+            } else if (line.startsWith("#EXT-X-KEY:") && !line.contains("METHOD=NONE")) {
+                playlist.unsupported = "encrypted segments";
+            } else if (line.startsWith("#EXT-X-MAP:")) {
+                playlist.unsupported = "fragmented MP4 segments";
+            } else if (!line.startsWith("#")) {
+                String uri = base.resolve(line).toString();
+                if (bandwidth >= 0) {
+                    playlist.variants.add(uri);
+                    playlist.bandwidths.add(bandwidth);
+                    bandwidth = -1;
+                } else {
+                    playlist.segments.add(new Segment(sequence++, uri, duration));
+                    duration = 0;
+                }
+            }
+        }
+        return playlist;
+    }
+
+    /**
+     * Attribute of a tag, the list is split at the commas outside of quoted
+     * strings, so a name never matches the end of another one.
+     *
+     * @param list attributes after the colon of the tag
+     * @param name
+     * @return value of the attribute, zero when missing or no number
+     */
+    static int getAttributeInt(String list, String name) {
+        int pos = 0;
+        while (pos < list.length()) {
+            int end = pos;
+            boolean quoted = false;
+            while (end < list.length() && (quoted || list.charAt(end) != ',')) {
+                if (list.charAt(end) == '"') {
+                    quoted = !quoted;
+                }
+                end++;
+            }
+            String attribute = list.substring(pos, end).trim();
+            int eq = attribute.indexOf('=');
+            if (eq > 0 && attribute.substring(0, eq).trim().equals(name)) {
+                try {
+                    return Integer.parseInt(attribute.substring(eq + 1).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+            pos = end + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Packed audio segments start with an ID3 tag carrying the timestamp,
+     * it is removed so the segments join into one continuous stream.
+     */
+    private static byte[] stripId3(byte[] data) {
+        int pos = 0;
+        while (data.length - pos >= 10 && data[pos] == 'I' && data[pos + 1] == 'D' && data[pos + 2] == '3') {
+            int size = ((data[pos + 6] & 0x7f) << 21) | ((data[pos + 7] & 0x7f) << 14)
+                    | ((data[pos + 8] & 0x7f) << 7) | (data[pos + 9] & 0x7f);
+            int footer = (data[pos + 5] & 0x10) != 0 ? 10 : 0;
+            pos += 10 + size + footer;
+        }
+        if (pos == 0) {
+            return data;
+        }
+        byte[] result = new byte[Math.max(0, data.length - pos)];
+        System.arraycopy(data, Math.min(pos, data.length), result, 0, result.length);
+        return result;
+    }
+
+    private static byte[] download(String link) throws IOException {
+        HttpURLConnection httpCon = (HttpURLConnection) URI.create(link).toURL().openConnection();
+        httpCon.setRequestProperty("User-Agent", "Java(TM) SE Runtime Environment");
+        httpCon.setConnectTimeout(CONNECT_TIMEOUT);
+        httpCon.setReadTimeout(READ_TIMEOUT);
+        try {
+            if (httpCon.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Wrong response code " + httpCon.getResponseCode());
+            }
+            try (InputStream inputStream = httpCon.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(1024, httpCon.getContentLength()));
+                inputStream.transferTo(out);
+                return out.toByteArray();
+            }
+        } finally {
+            httpCon.disconnect();
+        }
+    }
+
+    private static String getExtension(String uri) {
+        String path = URI.create(uri).getPath().toLowerCase(Locale.ROOT);
+        for (String ext : new String[]{".aac", ".mp3", ".ac3"}) {
+            if (path.endsWith(ext)) {
+                return ext;
+            }
+        }
+        return ".ts";
+    }
+
+    /**
+     *
+     */
+    @Override
+    protected void done() {
+        admission.release(record);
+        record.setStatus(Record.RECORD_DONE);
+    }
+
+    /**
+     *
+     * @param chunks
+     */
+    @Override
+    protected void process(List<ResponseEvent> chunks) {
+        chunks.forEach(re -> record.fireResponseEvent(re));
+    }
+
+    private File getRecFile() {
+        String dir = record.props.getProperty(Record.PROP_FILE_DIR);
+        String name = record.props.getProperty(Record.PROP_FILE_NAME);
+        return new File(dir.concat(File.separator).concat(name).concat(extension));
+    }
+
+    private static File getTempFile() {
+        String dir = RadioRec.getInstance().prefs.get(RadioRec.PROP_TEMP_DIR, RadioRec.DEFAULT_TEMP_DIR);
+        String name = dir.concat(File.separator).concat("RadioRec-").concat(UUID.randomUUID().toString().concat(".hls"));
+        return new File(name);
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void finish() {
+        finish.set(true);
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void cancel() {
+        cancel.set(true);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Balanced (AVL) tree of half open intervals [start, finish). Every node
+ * keeps the maximal finish of its subtree, so the subtrees which cannot
+ * overlap a query are skipped. Insert, remove and queries take O(log n), a
+ * query plus the number of intervals found.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ * @param <T>
+ */
+public class IntervalTree<T> {
+
+    private static class Node<T> {
+
+        final long start;
+        final long finish;
+        final long seq;
+        final T value;
+        long max;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long finish, long seq, T value) {
+            this.start = start;
+            this.finish = finish;
+            this.seq = seq;
+            this.value = value;
+            this.max = finish;
+        }
+
+        int compareTo(long start, long finish, long seq) {
+            int cmp = Long.compare(this.start, start);
+            if (cmp == 0) {
+                cmp = Long.compare(this.finish, finish);
+            }
+            return cmp != 0 ? cmp : Long.compare(this.seq, seq);
+        }
+    }
+
+    private Node<T> root;
+    // values in the tree, equal intervals are told apart by the sequence
+    private final Map<T, Node<T>> nodes = new IdentityHashMap<>();
+    private long sequence;
+
+    /**
+     *
+     * @return
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     *
+     * @param value
+     * @return
+     */
+    public boolean contains(T value) {
+        return nodes.containsKey(value);
+    }
+
+    /**
+     * A value already in the tree is moved to the new interval.
+     *
+     * @param start
+     * @param finish
+     * @param value
+     */
+    public void insert(long start, long finish, T value) {
+        remove(value);
+        Node<T> node = new Node<>(start, finish, sequence++, value);
+        nodes.put(value, node);
+        root = insert(root, node);
+    }
+
+    /**
+     *
+     * @param value
+     * @return false when the value is not in the tree
+     */
+    public boolean remove(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node.start, node.finish, node.seq);
+        return true;
+    }
+
+    /**
+     * Values whose interval overlaps [from, to).
+     *
+     * @param from
+     * @param to
+     * @param action
+     */
+    public void forEachOverlapping(long from, long to, Consumer<T> action) {
+        overlapping(root, from, to, action);
+    }
+
+    /**
+     * Values whose interval contains the time.
+     *
+     * @param time
+     * @param action
+     */
+    public void forEachAt(long time, Consumer<T> action) {
+        overlapping(root, time, time + 1, action);
+    }
+
+    /**
+     * Values in the order of start and finish.
+     *
+     * @param action
+     */
+    public void forEach(Consumer<T> action) {
+        inorder(root, action);
+    }
+
+    private static <T> void overlapping(Node<T> node, long from, long to, Consumer<T> action) {
+        while (node != null && node.max > from) {
+            overlapping(node.left, from, to, action);
+            if (node.start >= to) {
+                // the right subtree starts even later
+                return;
+            }
+            if (node.finish > from) {
+                action.accept(node.value);
+            }
+            node = node.right;
+        }
+    }
+
+    private static <T> void inorder(Node<T> node, Consumer<T> action) {
+        while (node != null) {
+            inorder(node.left, action);
+            action.accept(node.value);
+            node = node.right;
+        }
+    }
+
+    private static <T> int height(Node<T> node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static <T> void fix(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.finish;
+        if (node.left != null && node.left.max > max) {
+            max = node.left.max;
+        }
+        if (node.right != null && node.right.max > max) {
+            max = node.right.max;
+        }
+        node.max = max;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        fix(node);
+        fix(left);
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        fix(node);
+        fix(right);
+        return right;
+    }
+
+    private static <T> Node<T> balance(Node<T> node) {
+        fix(node);
+        int diff = height(node.left) - height(node.right);
+        if (diff > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <T> Node<T> insert(Node<T> node, Node<T> item) {
+        if (node == null) {
+            return item;
+        }
+        if (node.compareTo(item.start, item.finish, item.seq) > 0) {
+            node.left = insert(node.left, item);
+        } else {
+            node.right = insert(node.right, item);
+        }
+        return balance(node);
+    }
+
+    private static <T> Node<T> remove(Node<T> node, long start, long finish, long seq) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compareTo(start, finish, seq);
+        if (cmp > 0) {
+            node.left = remove(node.left, start, finish, seq);
+        } else if (cmp < 0) {
+            node.right = remove(node.right, start, finish, seq);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // the leftmost node of the right subtree takes the place
+            Node<T> next = node.right;
+            while (next.left != null) {
+                next = next.left;
+            }
+            next.right = removeMin(node.right);
+            next.left = node.left;
+            return balance(next);
+        }
+        return balance(node);
+    }
+
+    private static <T> Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Changes of a list collected by {@link ResponseList#batch} and applied at
+ * once. Items are told apart by identity, the changes apply in the order they
+ * were made.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ * @param <T>
+ */
+public class ItemBatch<T extends ResponseNode> {
+
+    boolean clear;
+
+    final List<T> added = new ArrayList<>();
+
+    final Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    final Set<T> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    ItemBatch() {
+    }
+
+    /**
+     * The item is added to the end of the list.
+     *
+     * @param item
+     */
+    public void add(T item) {
+        if (item != null) {
+            added.add(item);
+        }
+    }
+
+    /**
+     *
+     * @param c
+     */
+    public void addAll(Collection<? extends T> c) {
+        c.forEach(this::add);
+    }
+
+    /**
+     *
+     * @param item
+     */
+    public void remove(T item) {
+        for (int i = 0; i < added.size(); i++) {
+            if (added.get(i) == item) {
+                // added by this batch, so not in the list yet
+                added.remove(i);
+                return;
+            }
+        }
+        updated.remove(item);
+        removed.add(item);
+    }
+
+    /**
+     *
+     * @param c
+     */
+    public void removeAll(Collection<? extends T> c) {
+        c.forEach(this::remove);
+    }
+
+    /**
+     * The item in the list changed, e.g. its properties.
+     *
+     * @param item
+     */
+    public void update(T item) {
+        if (!removed.contains(item)) {
+            updated.add(item);
+        }
+    }
+
+    /**
+     * All items in the list are removed.
+     */
+    public void clear() {
+        clear = true;
+        added.clear();
+        updated.clear();
+    }
+
+}
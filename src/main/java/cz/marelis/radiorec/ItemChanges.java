@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Object of the batch item event, the items removed, inserted and updated by
+ * a batch with their indexes. Removed indexes refer to the list before the
+ * batch, the other ones to the list after it, all in ascending order.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ * @param <T>
+ */
+public class ItemChanges<T extends ResponseNode> {
+
+    private final List<T> removed;
+    private final int[] removedIndexes;
+    private final List<T> inserted;
+    private final int[] insertedIndexes;
+    private final List<T> updated;
+    private final int[] updatedIndexes;
+
+    ItemChanges(List<T> removed, int[] removedIndexes, List<T> inserted, int[] insertedIndexes,
+            List<T> updated, int[] updatedIndexes) {
+        this.removed = Collections.unmodifiableList(removed);
+        this.removedIndexes = removedIndexes;
+        this.inserted = Collections.unmodifiableList(inserted);
+        this.insertedIndexes = insertedIndexes;
+        this.updated = Collections.unmodifiableList(updated);
+        this.updatedIndexes = updatedIndexes;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return removed.isEmpty() && inserted.isEmpty() && updated.isEmpty();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<T> getRemoved() {
+        return removed;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<T> getInserted() {
+        return inserted;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<T> getUpdated() {
+        return updated;
+    }
+
+    /**
+     *
+     * @return ranges of removed indexes as pairs of the first and last index
+     */
+    public List<int[]> getRemovedRanges() {
+        return toRanges(removedIndexes);
+    }
+
+    /**
+     *
+     * @return ranges of inserted indexes as pairs of the first and last index
+     */
+    public List<int[]> getInsertedRanges() {
+        return toRanges(insertedIndexes);
+    }
+
+    /**
+     *
+     * @return ranges of updated indexes as pairs of the first and last index
+     */
+    public List<int[]> getUpdatedRanges() {
+        return toRanges(updatedIndexes);
+    }
+
+    private static List<int[]> toRanges(int[] indexes) {
+        List<int[]> ranges = new ArrayList<>();
+        int i = 0;
+        while (i < indexes.length) {
+            int first = indexes[i];
+            int last = first;
+            while (++i < indexes.length && indexes[i] == last + 1) {
+                last++;
+            }
+            ranges.add(new int[]{first, last});
+        }
+        return ranges;
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        return "ItemChanges{" + "removed=" + removed.size() + ", inserted=" + inserted.size()
+                + ", updated=" + updated.size() + '}';
+    }
+
+}
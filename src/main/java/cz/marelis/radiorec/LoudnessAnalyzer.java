@@ -0,0 +1,256 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import com.mpatric.mp3agic.AbstractID3v2Tag;
+import com.mpatric.mp3agic.ID3v24Frame;
+import com.mpatric.mp3agic.ID3v2FrameSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.decoder.SampleBuffer;
+
+/**
+ * Loudness analysis of a single recording. Frames are collected into
+ * batches on the ingest thread and decoded on a small shared pool of low
+ * priority threads. When the pool falls behind, batches are skipped instead
+ * of blocking the recorder.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class LoudnessAnalyzer {
+
+    private final static int POOL_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private final static int POOL_QUEUE = 64;
+    private final static int BATCH_FRAMES = 64;
+    private final static int MAX_PENDING_BATCHES = 4;
+
+    // largest back reference of a layer III frame into the previous ones
+    private final static int MAX_RESERVOIR = 511;
+
+    private final static AtomicInteger ACTIVE = new AtomicInteger();
+
+    private final static ThreadPoolExecutor POOL = new ThreadPoolExecutor(POOL_THREADS, POOL_THREADS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(POOL_QUEUE), runnable -> {
+                Thread thread = new Thread(runnable, "RadioRec-Loudness");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+
+    static {
+        POOL.allowCoreThreadTimeOut(true);
+    }
+
+    private final LoudnessMeter meter = new LoudnessMeter();
+    private final ConcurrentLinkedQueue<byte[]> batches = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(BATCH_FRAMES * 1024);
+    private int batchFrames;
+    private long batchCounter;
+    private volatile boolean skipped;
+    private volatile boolean closed;
+
+    /**
+     *
+     */
+    public LoudnessAnalyzer() {
+        ACTIVE.incrementAndGet();
+    }
+
+    /**
+     * Called from the recording thread for every complete frame.
+     *
+     * @param frame
+     * @param length
+     */
+    public void addFrame(byte[] frame, int length) {
+        if (closed) {
+            return;
+        }
+        batch.write(frame, 0, length);
+        if (++batchFrames >= BATCH_FRAMES) {
+            submitBatch();
+        }
+    }
+
+    private void submitBatch() {
+        if (batchFrames == 0) {
+            return;
+        }
+        byte[] data = batch.toByteArray();
+        batch.reset();
+        batchFrames = 0;
+        // with more streams than analysis threads only every n-th batch is measured
+        int stride = Math.max(1, ACTIVE.get() / POOL_THREADS);
+        if (batchCounter++ % stride != 0 || pending.get() >= MAX_PENDING_BATCHES) {
+            skipped = true;
+            return;
+        }
+        batches.add(data);
+        if (pending.getAndIncrement() == 0) {
+            try {
+                POOL.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                batches.clear();
+                skipped = true;
+                synchronized (this) {
+                    pending.set(0);
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            byte[] data = batches.poll();
+            if (data != null && !closed) {
+                synchronized (this) {
+                    decode(data);
+                }
+            }
+        } while (pending.decrementAndGet() > 0);
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    private void decode(byte[] data) {
+        if (skipped) {
+            meter.discontinuity();
+            skipped = false;
+        }
+        // a fresh decoder per batch, the layer III decoder is bound to its bitstream
+        Decoder decoder = new Decoder();
+        Bitstream bitstream = new Bitstream(new ByteArrayInputStream(data));
+        try {
+            Header header;
+            // frames taking their data from the bit reservoir of the frames
+            // before the batch are decoded only to fill the reservoir
+            int warmup = 0;
+            while ((header = bitstream.readFrame()) != null) {
+                SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                if (header.layer() != 3 || warmup >= MAX_RESERVOIR) {
+                    meter.configure(output.getSampleFrequency(), output.getChannelCount());
+                    meter.addSamples(output.getBuffer(), output.getBufferLength());
+                } else {
+                    warmup += header.framesize;
+                }
+                bitstream.closeFrame();
+            }
+        } catch (JavaLayerException | RuntimeException ex) {
+            Logger.getLogger(LoudnessAnalyzer.class.getName()).log(Level.FINE, null, ex);
+        }
+    }
+
+    /**
+     * Flushes the last batch and waits a bounded time for the analysis.
+     *
+     * @param timeout
+     * @param unit
+     * @return the meter, or null when nothing could be measured
+     */
+    public LoudnessMeter finish(long timeout, TimeUnit unit) {
+        submitBatch();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (pending.get() > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        cancel();
+        synchronized (this) {
+            return meter.hasResult() ? meter : null;
+        }
+    }
+
+    /**
+     *
+     */
+    public synchronized void cancel() {
+        if (!closed) {
+            closed = true;
+            ACTIVE.decrementAndGet();
+        }
+    }
+
+    /**
+     * Adds ReplayGain TXXX frames and a RVA2 frame to the tag.
+     *
+     * @param tag
+     * @param meter
+     */
+    public static void addTagFrames(AbstractID3v2Tag tag, LoudnessMeter meter) {
+        double gain = meter.getReplayGain();
+        if (Double.isNaN(gain) || Double.isInfinite(gain)) {
+            return;
+        }
+        addFrame(tag, "TXXX", textFrameData("REPLAYGAIN_TRACK_GAIN", String.format(Locale.ROOT, "%.2f dB", gain)));
+        addFrame(tag, "TXXX", textFrameData("REPLAYGAIN_TRACK_PEAK", String.format(Locale.ROOT, "%.6f", meter.getPeak())));
+        addFrame(tag, "TXXX", textFrameData("R128_INTEGRATED_LOUDNESS",
+                String.format(Locale.ROOT, "%.2f LUFS", meter.getIntegratedLoudness())));
+        addFrame(tag, "RVA2", rva2FrameData("track", gain));
+    }
+
+    static void addFrame(AbstractID3v2Tag tag, String id, byte[] data) {
+        tag.getFrameSets().computeIfAbsent(id, ID3v2FrameSet::new).addFrame(new ID3v24Frame(id, data));
+    }
+
+    static byte[] textFrameData(String description, String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0); // ISO-8859-1
+        out.writeBytes(description.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(0);
+        out.writeBytes(value.getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+
+    private static byte[] rva2FrameData(String identification, double gain) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(identification.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(0);
+        int adjustment = (int) Math.round(Math.max(-64.0, Math.min(63.998, gain)) * 512.0);
+        out.write(1); // master volume
+        out.write((adjustment >> 8) & 0xff);
+        out.write(adjustment & 0xff);
+        out.write(0); // no peak
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+/**
+ * Incremental EBU R128 (ITU-R BS.1770) integrated loudness accumulator.
+ * Gated blocks are kept in a histogram, so memory use does not grow with
+ * the length of the recording.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class LoudnessMeter {
+
+    /**
+     *
+     */
+    public final static double REPLAYGAIN_REFERENCE = -18.0;
+
+    private final static double ABSOLUTE_GATE = -70.0;
+    private final static double RELATIVE_GATE = -10.0;
+    private final static double HISTOGRAM_MAX = 5.0;
+    private final static double HISTOGRAM_STEP = 0.1;
+    private final static int HISTOGRAM_SIZE = (int) Math.round((HISTOGRAM_MAX - ABSOLUTE_GATE) / HISTOGRAM_STEP) + 1;
+
+    private final long[] histogramCount = new long[HISTOGRAM_SIZE];
+    private final double[] histogramEnergy = new double[HISTOGRAM_SIZE];
+
+    private int rate;
+    private int channels;
+
+    // K-weighting, two biquads per channel
+    private final double[] b1 = new double[3];
+    private final double[] a1 = new double[3];
+    private final double[] b2 = new double[3];
+    private final double[] a2 = new double[3];
+    private double[][] state;
+
+    // 100 ms sub-blocks, a gating block is made of the last four
+    private final double[] subBlocks = new double[4];
+    private int subBlockCount;
+    private int subBlockSize;
+    private int subBlockPos;
+    private double subBlockSum;
+
+    private double peak;
+    private long blocks;
+
+    /**
+     *
+     * @param rate
+     * @param channels
+     */
+    public void configure(int rate, int channels) {
+        if (rate == this.rate && channels == this.channels) {
+            return;
+        }
+        this.rate = rate;
+        this.channels = channels;
+        this.state = new double[channels][4];
+        this.subBlockSize = rate / 10;
+        this.subBlockPos = 0;
+        this.subBlockSum = 0;
+        this.subBlockCount = 0;
+
+        double k = Math.tan(Math.PI * 1681.974450955533 / rate);
+        double q = 0.7071752369554196;
+        double vh = Math.pow(10.0, 3.999843853973347 / 20.0);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1.0 + k / q + k * k;
+        b1[0] = (vh + vb * k / q + k * k) / a0;
+        b1[1] = 2.0 * (k * k - vh) / a0;
+        b1[2] = (vh - vb * k / q + k * k) / a0;
+        a1[1] = 2.0 * (k * k - 1.0) / a0;
+        a1[2] = (1.0 - k / q + k * k) / a0;
+
+        k = Math.tan(Math.PI * 38.13547087602444 / rate);
+        q = 0.5003270373238773;
+        a0 = 1.0 + k / q + k * k;
+        b2[0] = 1.0;
+        b2[1] = -2.0;
+        b2[2] = 1.0;
+        a2[1] = 2.0 * (k * k - 1.0) / a0;
+        a2[2] = (1.0 - k / q + k * k) / a0;
+    }
+
+    /**
+     * Breaks the filter and block continuity, used when some input was
+     * skipped.
+     */
+    public void discontinuity() {
+        if (state != null) {
+            state = new double[channels][4];
+        }
+        subBlockPos = 0;
+        subBlockSum = 0;
+        subBlockCount = 0;
+    }
+
+    /**
+     *
+     * @param samples interleaved 16-bit samples
+     * @param length
+     */
+    public void addSamples(short[] samples, int length) {
+        if (state == null) {
+            return;
+        }
+        for (int idx = 0; idx + channels <= length; idx += channels) {
+            double sum = 0;
+            for (int ch = 0; ch < channels; ch++) {
+                double x = samples[idx + ch] / 32768.0;
+                double abs = Math.abs(x);
+                if (abs > peak) {
+                    peak = abs;
+                }
+                double[] s = state[ch];
+                // stage 1, direct form II
+                double w = x - a1[1] * s[0] - a1[2] * s[1];
+                double y = b1[0] * w + b1[1] * s[0] + b1[2] * s[1];
+                s[1] = s[0];
+                s[0] = w;
+                // stage 2
+                w = y - a2[1] * s[2] - a2[2] * s[3];
+                y = b2[0] * w + b2[1] * s[2] + b2[2] * s[3];
+                s[3] = s[2];
+                s[2] = w;
+                sum += y * y;
+            }
+            subBlockSum += sum;
+            if (++subBlockPos == subBlockSize) {
+                addSubBlock(subBlockSum / subBlockSize);
+                subBlockPos = 0;
+                subBlockSum = 0;
+            }
+        }
+    }
+
+    private void addSubBlock(double energy) {
+        subBlocks[subBlockCount % 4] = energy;
+        subBlockCount++;
+        if (subBlockCount < 4) {
+            return;
+        }
+        double block = (subBlocks[0] + subBlocks[1] + subBlocks[2] + subBlocks[3]) / 4.0;
+        double loudness = toLoudness(block);
+        if (loudness < ABSOLUTE_GATE) {
+            return;
+        }
+        int bin = (int) ((Math.min(loudness, HISTOGRAM_MAX) - ABSOLUTE_GATE) / HISTOGRAM_STEP);
+        histogramCount[bin]++;
+        histogramEnergy[bin] += block;
+        blocks++;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public boolean hasResult() {
+        return blocks > 0;
+    }
+
+    /**
+     *
+     * @return integrated loudness in LUFS, or NaN without any gated block
+     */
+    public double getIntegratedLoudness() {
+        if (blocks == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (double energy : histogramEnergy) {
+            sum += energy;
+        }
+        double threshold = toLoudness(sum / blocks) + RELATIVE_GATE;
+        int first = (int) Math.max(0, Math.ceil((threshold - ABSOLUTE_GATE) / HISTOGRAM_STEP));
+        long count = 0;
+        sum = 0;
+        for (int bin = first; bin < HISTOGRAM_SIZE; bin++) {
+            count += histogramCount[bin];
+            sum += histogramEnergy[bin];
+        }
+        return count > 0 ? toLoudness(sum / count) : Double.NaN;
+    }
+
+    /**
+     *
+     * @return sample peak, 1.0 is full scale
+     */
+    public double getPeak() {
+        return peak;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public double getReplayGain() {
+        return REPLAYGAIN_REFERENCE - getIntegratedLoudness();
+    }
+
+    private static double toLoudness(double energy) {
+        return -0.691 + 10.0 * Math.log10(energy);
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        return "LoudnessMeter{" + "rate=" + rate + ", channels=" + channels + ", blocks=" + blocks
+                + ", integrated=" + getIntegratedLoudness() + ", peak=" + peak + '}';
+    }
+
+}
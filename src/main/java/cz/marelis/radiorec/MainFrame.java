@@ -17,24 +17,35 @@ package cz.marelis.radiorec;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Font;
 import java.awt.Point;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.io.File;
+import java.text.MessageFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
 import javax.swing.RowSorter;
 import javax.swing.SortOrder;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
 import javax.swing.event.ListSelectionEvent;
@@ -61,6 +72,19 @@ public class MainFrame extends JFrame
     private final StationTableModel stationTableModel;
     private final ProgramTableModel programTableModel;
     private final RecordTableModel recordTableModel;
+    private final RuleTableModel ruleTableModel;
+    private final DashboardTableModel dashboardTableModel;
+
+    // events of the station director delivered in batches on the event dispatch thread
+    private final ResponseEventBus viewBus = new ResponseEventBus(EventQueue::invokeLater);
+
+    // changes gathered since the last refresh of the tables
+    private boolean dirtyStations, dirtyPrograms, dirtyRecords, dirtyRules, dirtyGuide;
+    private boolean guideShown;
+    private final Set<ResponseNode> dirtyNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Timer refreshTimer;
+    private final Timer dashboardTimer;
+    private boolean iconified;
 
     /**
      * Creates new form MainFrame
@@ -74,10 +98,26 @@ public class MainFrame extends JFrame
         stationTableModel.setStationDirector(sd);
         programTableModel = new ProgramTableModel();
         recordTableModel = new RecordTableModel();
+        ruleTableModel = new RuleTableModel();
+        dashboardTableModel = new DashboardTableModel(radioRec.activeRecords,
+                radioRec.prefs.getInt(RadioRec.PROP_UI_DASHBOARD_UPCOMING, RadioRec.DEFAULT_UI_DASHBOARD_UPCOMING));
+
+        refreshTimer = new Timer(radioRec.prefs.getInt(RadioRec.PROP_UI_MAINFORM_REFRESH_INTERVAL,
+                RadioRec.DEFAULT_UI_MAINFORM_REFRESH_INTERVAL), e -> refreshTables());
+        refreshTimer.setRepeats(false);
+        // runs only while the dashboard is shown
+        dashboardTimer = new Timer(radioRec.prefs.getInt(RadioRec.PROP_UI_DASHBOARD_REFRESH_INTERVAL,
+                RadioRec.DEFAULT_UI_DASHBOARD_REFRESH_INTERVAL), e -> refreshDashboard());
 
         initComponents();
 
-        sd.addResponseListener(this);
+        viewBus.addResponseListener(this);
+        sd.addResponseListener(viewBus);
+        tabbedPane.addChangeListener(e -> tabChanged());
+
+        guideScrollPane.setRowHeaderView(programGrid.getRowHeader());
+        guideScrollPane.setColumnHeaderView(programGrid.getColumnHeader());
+        programGrid.addPropertyChangeListener(ProgramGrid.PROP_SELECTION, e -> updateButtons());
 
         int minLocation = radioRec.prefs.getInt(RadioRec.PROP_UI_MAINFORM_MIN_DIVIDER_LOCATION,
                 RadioRec.DEFAULT_UI_MAINFORM_MIN_DIVIDER_LOCATION);
@@ -105,32 +145,35 @@ public class MainFrame extends JFrame
         stationRowSorter.setComparator(0, (Station o1, Station o2) -> o1.compareTo(o2));
         //stationRowSorter.setSortable(0, true);
         stationRowSorter.setSortKeys(sortKeys);
-        stationRowSorter.setSortsOnUpdates(true);
+        stationRowSorter.setSortsOnUpdates(false);
         // program's table
         TableRowSorter<ProgramTableModel> programRowSorter = new TableRowSorter<>(programTableModel);
-        recordTable.setRowSorter(programRowSorter);
+        programTable.setRowSorter(programRowSorter);
         programRowSorter.setComparator(0, (Program o1, Program o2) -> o1.compareTo(o2));
         //programRowSorter.setSortable(0, true);
         programRowSorter.setSortKeys(sortKeys);
-        programRowSorter.setSortsOnUpdates(true);
+        programRowSorter.setSortsOnUpdates(false);
         // record's table
         TableRowSorter<RecordTableModel> recordRowSorter = new TableRowSorter<>(recordTableModel);
         recordTable.setRowSorter(recordRowSorter);
         recordRowSorter.setComparator(0, (Record o1, Record o2) -> o1.compareTo(o2));
         //recordRowSorter.setSortable(0, true);
         recordRowSorter.setSortKeys(sortKeys);
-        recordRowSorter.setSortsOnUpdates(true);
+        recordRowSorter.setSortsOnUpdates(false);
     }
 
     private void updateButtons() {
         //System.out.println("MainFrame.updateButtons");
-        int playing = RadioRec.getInstance().stationDirector.getPlayingItem();
-        if (playing >= 0) {
+        if (RadioRec.getInstance().stationDirector.getPlayingStation() != null) {
             playStationButton.setForeground(new Color(0, 204, 153));
         } else {
             playStationButton.setForeground(UIManager.getDefaults().getColor("Button.foreground"));
         }
 
+        // Guide
+        recordGuideButton.setEnabled(programGrid.getSelectedPrograms().keySet().stream()
+                .anyMatch(MainFrame::isAddingManually));
+
         Station station = getSelectedStation();
 
         if (station == null) {
@@ -142,10 +185,12 @@ public class MainFrame extends JFrame
             recordProgramButton.setEnabled(false);
             updateProgramButton.setEnabled(false);
             removeProgramButton.setEnabled(false);
+
+            removeRuleButton.setEnabled(false);
             return;
         }
 
-        boolean manually = station.props.getProperty(Station.PROP_RECORD_ADDING).equals(Station.RECORD_ADDING_MANUALLY);
+        boolean manually = isAddingManually(station);
         int[] programRows = programTable.getSelectedRows();
 
         // Main
@@ -162,6 +207,13 @@ public class MainFrame extends JFrame
         // Record
         addRecordButton.setEnabled(manually);
         removeRecordButton.setEnabled(!station.recordDirector.isEmpty());
+
+        // Rule
+        removeRuleButton.setEnabled(ruleTable.getSelectedRowCount() > 0);
+    }
+
+    private static boolean isAddingManually(Station station) {
+        return station.props.getProperty(Station.PROP_RECORD_ADDING).equals(Station.RECORD_ADDING_MANUALLY);
     }
 
     private void updateStatusPanel(String text, int progress) {
@@ -172,45 +224,40 @@ public class MainFrame extends JFrame
     }
 
     private Station getSelectedStation() {
-        if (stationsTable.getRowCount() == 0) {
-            return null;
-        }
         int row = stationsTable.getSelectedRow();
-        if (row >= RadioRec.getInstance().stationDirector.itemsCount()) {
-            return null;
-        }
-        return (row >= 0) ? RadioRec.getInstance().stationDirector.getItem(row) : null;
+        return (row >= 0) ? stationTableModel.getItem(stationsTable.convertRowIndexToModel(row)) : null;
     }
 
-    private void editStationDialog(int idx) {
-        Station station = RadioRec.getInstance().stationDirector.getItem(idx);
+    private void editStationDialog(Station station) {
         StationDialog dialog = new StationDialog(this, station);
         dialog.setModal(true);
         dialog.setAlwaysOnTop(true);
         dialog.setLocationRelativeTo(null);
         dialog.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
         dialog.setVisible(true);
-        if (dialog.resultOk) {
+        int idx = RadioRec.getInstance().stationDirector.indexOfItem(station);
+        if (dialog.resultOk && idx >= 0) {
             station.saveToFile();
             RadioRec.getInstance().stationDirector.setItem(idx, station);
         }
         dialog.dispose();
     }
 
-    private void editRecordDialog(int idx) {
+    private void editRecordDialog(Record record) {
         Station station = getSelectedStation();
         if (station == null) {
             return;
         }
-        Record record = station.recordDirector.getItem(idx);
         record.setIrremovable(true);
         RecordDialog dialog = new RecordDialog(this, record);
+        dialog.setRepeatEnabled(false);
         dialog.setModal(true);
         dialog.setAlwaysOnTop(true);
         dialog.setLocationRelativeTo(null);
         dialog.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
         dialog.setVisible(true);
-        if (dialog.resultOk) {
+        int idx = station.recordDirector.indexOfItem(record);
+        if (dialog.resultOk && idx >= 0) {
             station.recordDirector.setItem(idx, record);
         }
         dialog.dispose();
@@ -256,6 +303,24 @@ public class MainFrame extends JFrame
         filler5 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 0), new java.awt.Dimension(0, 0), new java.awt.Dimension(32767, 0));
         addRecordButton = new javax.swing.JButton();
         removeRecordButton = new javax.swing.JButton();
+        planRecordButton = new javax.swing.JButton();
+        rulePanel = new javax.swing.JPanel();
+        ruleScrollPane = new javax.swing.JScrollPane();
+        ruleTable = new javax.swing.JTable();
+        jToolBar4 = new javax.swing.JToolBar();
+        filler7 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 0), new java.awt.Dimension(0, 0), new java.awt.Dimension(32767, 0));
+        removeRuleButton = new javax.swing.JButton();
+        guidePanel = new javax.swing.JPanel();
+        guideScrollPane = new javax.swing.JScrollPane();
+        programGrid = new cz.marelis.radiorec.ProgramGrid(RadioRec.getInstance().stationDirector);
+        jToolBar3 = new javax.swing.JToolBar();
+        filler6 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 0), new java.awt.Dimension(0, 0), new java.awt.Dimension(32767, 0));
+        nowGuideButton = new javax.swing.JButton();
+        recordGuideButton = new javax.swing.JButton();
+        dashboardPanel = new javax.swing.JPanel();
+        dashboardLabel = new javax.swing.JLabel();
+        dashboardScrollPane = new javax.swing.JScrollPane();
+        dashboardTable = new javax.swing.JTable();
         statusPanel = new javax.swing.JPanel();
         filler3 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
         statusLabel = new javax.swing.JLabel();
@@ -489,6 +554,18 @@ public class MainFrame extends JFrame
         });
         jToolBar2.add(removeRecordButton);
 
+        planRecordButton.setFont(buttonsFontRegular);
+        planRecordButton.setText("\uf080");
+        planRecordButton.setFocusable(false);
+        planRecordButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        planRecordButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        planRecordButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                planRecordButtonActionPerformed(evt);
+            }
+        });
+        jToolBar2.add(planRecordButton);
+
         javax.swing.GroupLayout recordPanelLayout = new javax.swing.GroupLayout(recordPanel);
         recordPanel.setLayout(recordPanelLayout);
         recordPanelLayout.setHorizontalGroup(
@@ -506,6 +583,116 @@ public class MainFrame extends JFrame
 
         tabbedPane.addTab(bundle.getString("MainFrame.recordPanel.TabConstraints.tabTitle"), recordPanel); // NOI18N
 
+        ruleTable.setModel(ruleTableModel);
+        ruleTable.setShowGrid(true);
+        ruleTable.getSelectionModel().addListSelectionListener(this);
+        ruleTable.setIntercellSpacing(new java.awt.Dimension(1,1));
+        ruleScrollPane.setViewportView(ruleTable);
+
+        jToolBar4.setRollover(true);
+        jToolBar4.add(filler7);
+
+        removeRuleButton.setFont(buttonsFontRegular);
+        removeRuleButton.setText("\uf2ed");
+        removeRuleButton.setFocusable(false);
+        removeRuleButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        removeRuleButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        removeRuleButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                removeRuleButtonActionPerformed(evt);
+            }
+        });
+        jToolBar4.add(removeRuleButton);
+
+        javax.swing.GroupLayout rulePanelLayout = new javax.swing.GroupLayout(rulePanel);
+        rulePanel.setLayout(rulePanelLayout);
+        rulePanelLayout.setHorizontalGroup(
+            rulePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addComponent(ruleScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 403, Short.MAX_VALUE)
+            .addComponent(jToolBar4, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+        );
+        rulePanelLayout.setVerticalGroup(
+            rulePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, rulePanelLayout.createSequentialGroup()
+                .addComponent(jToolBar4, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(ruleScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 384, Short.MAX_VALUE))
+        );
+
+        tabbedPane.addTab(bundle.getString("MainFrame.rulePanel.TabConstraints.tabTitle"), rulePanel); // NOI18N
+
+        guideScrollPane.setViewportView(programGrid);
+
+        jToolBar3.setRollover(true);
+        jToolBar3.add(filler6);
+
+        nowGuideButton.setFont(buttonsFontRegular);
+        nowGuideButton.setText("\uf017");
+        nowGuideButton.setFocusable(false);
+        nowGuideButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        nowGuideButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        nowGuideButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                nowGuideButtonActionPerformed(evt);
+            }
+        });
+        jToolBar3.add(nowGuideButton);
+
+        recordGuideButton.setFont(buttonsFontSolid);
+        recordGuideButton.setText("\uf019");
+        recordGuideButton.setFocusable(false);
+        recordGuideButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        recordGuideButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        recordGuideButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                recordGuideButtonActionPerformed(evt);
+            }
+        });
+        jToolBar3.add(recordGuideButton);
+
+        javax.swing.GroupLayout guidePanelLayout = new javax.swing.GroupLayout(guidePanel);
+        guidePanel.setLayout(guidePanelLayout);
+        guidePanelLayout.setHorizontalGroup(
+            guidePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addComponent(guideScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 403, Short.MAX_VALUE)
+            .addComponent(jToolBar3, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+        );
+        guidePanelLayout.setVerticalGroup(
+            guidePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, guidePanelLayout.createSequentialGroup()
+                .addComponent(jToolBar3, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(guideScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 384, Short.MAX_VALUE))
+        );
+
+        tabbedPane.addTab(bundle.getString("MainFrame.guidePanel.TabConstraints.tabTitle"), guidePanel); // NOI18N
+
+        dashboardTable.setModel(dashboardTableModel);
+        dashboardTable.setShowGrid(true);
+        dashboardTable.setIntercellSpacing(new java.awt.Dimension(1,1));
+        dashboardScrollPane.setViewportView(dashboardTable);
+
+        javax.swing.GroupLayout dashboardPanelLayout = new javax.swing.GroupLayout(dashboardPanel);
+        dashboardPanel.setLayout(dashboardPanelLayout);
+        dashboardPanelLayout.setHorizontalGroup(
+            dashboardPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addComponent(dashboardScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 403, Short.MAX_VALUE)
+            .addGroup(dashboardPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(dashboardLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addContainerGap())
+        );
+        dashboardPanelLayout.setVerticalGroup(
+            dashboardPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, dashboardPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(dashboardLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(dashboardScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 384, Short.MAX_VALUE))
+        );
+
+        tabbedPane.addTab(bundle.getString("MainFrame.dashboardPanel.TabConstraints.tabTitle"), dashboardPanel); // NOI18N
+
         splitPane.setRightComponent(tabbedPane);
 
         statusPanel.setLayout(new java.awt.GridBagLayout());
@@ -581,7 +768,11 @@ public class MainFrame extends JFrame
     @Override
     public void windowClosing(WindowEvent e) {
         System.out.println("MainFrame.windowClosing");
-        RadioRec.getInstance().stationDirector.removeResponseListener(this);
+        RadioRec.getInstance().stationDirector.removeResponseListener(viewBus);
+        // batches already posted to the event dispatch thread are dropped
+        viewBus.removeResponseListener(this);
+        refreshTimer.stop();
+        dashboardTimer.stop();
         RadioRec.getInstance().shutdown();
     }
 
@@ -601,6 +792,9 @@ public class MainFrame extends JFrame
     @Override
     public void windowIconified(WindowEvent e) {
         System.out.println("MainFrame.windowIconified");
+        iconified = true;
+        refreshTimer.stop();
+        dashboardTimer.stop();
     }
 
     /**
@@ -610,6 +804,9 @@ public class MainFrame extends JFrame
     @Override
     public void windowDeiconified(WindowEvent e) {
         System.out.println("MainFrame.windowDeiconified");
+        iconified = false;
+        refreshTables();
+        updateDashboardTimer();
     }
 
     /**
@@ -645,6 +842,7 @@ public class MainFrame extends JFrame
             if (station != null) {
                 programTableModel.setProgramDirector(station.programDirector);
                 recordTableModel.setRecordDirector(station.recordDirector);
+                ruleTableModel.setRuleDirector(station.ruleDirector);
             }
 
         } else if (e.getSource() == programTable.getSelectionModel()) {
@@ -741,16 +939,16 @@ public class MainFrame extends JFrame
     }//GEN-LAST:event_openStationButtonActionPerformed
 
     private void editStationButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_editStationButtonActionPerformed
-        int sel = stationsTable.getSelectedRow();
-        if (sel >= 0) {
-            editStationDialog(sel);
+        Station station = getSelectedStation();
+        if (station != null) {
+            editStationDialog(station);
         }
     }//GEN-LAST:event_editStationButtonActionPerformed
 
     private void removeStationButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_removeStationButtonActionPerformed
-        int sel = stationsTable.getSelectedRow();
-        if (sel >= 0) {
-            RadioRec.getInstance().stationDirector.removeItem(sel);
+        Station station = getSelectedStation();
+        if (station != null) {
+            RadioRec.getInstance().stationDirector.removeItem(station);
         }
     }//GEN-LAST:event_removeStationButtonActionPerformed
 
@@ -763,22 +961,75 @@ public class MainFrame extends JFrame
         if (station == null) {
             return;
         }
+        List<Program> programs = new ArrayList<>();
         for (int pos : rowIndices) {
-            Program program = station.programDirector.getItem(pos);
-            Record record = new Record();
-            record.props.setProperty(Record.PROP_URL, station.props.getProperty(Station.PROP_STATION_LINK));
-            record.props.setProperty(Record.PROP_TITLE, program.props.getProperty(Program.PROP_TITLE));
-            record.props.setProperty(Record.PROP_COMMENT, program.props.getProperty(Program.PROP_COMMENT));
-            record.props.setProperty(Record.PROP_TIME_START, program.props.getProperty(Program.PROP_TIME_START));
-            record.props.setProperty(Record.PROP_TIME_FINISH, program.props.getProperty(Program.PROP_TIME_FINISH));
-            record.props.setProperty(Record.PROP_FILE_DIR, station.getRecordDirName());
-            record.props.setProperty(Record.PROP_FILE_NAME, station.getRecordFileName(record));
-            if (!station.recordDirector.containsItem(record)) {
-                station.recordDirector.addItem(record);
-            }
+            programs.add(programTableModel.getItem(programTable.convertRowIndexToModel(pos)));
         }
+        recordPrograms(station, programs);
     }//GEN-LAST:event_recordProgramButtonActionPerformed
 
+    /**
+     * Adds records of the programs to the station in one batch. Programs
+     * already recorded are skipped, a pending record of the same stream
+     * overlapping a program is extended instead.
+     *
+     * @param station
+     * @param programs
+     */
+    private void recordPrograms(Station station, List<Program> programs) {
+        RecordIndex index = RadioRec.getInstance().recordIndex;
+        // records created or extended here reach the index with the batch event
+        List<Record> touched = new ArrayList<>();
+        station.recordDirector.batch(batch -> {
+            for (Program program : programs) {
+                Record record = new Record();
+                record.props.setProperty(Record.PROP_URL, station.props.getProperty(Station.PROP_STATION_LINK));
+                record.props.setProperty(Record.PROP_URL_MIRRORS, station.getStationMirrors());
+                record.props.setProperty(Record.PROP_TITLE, program.props.getProperty(Program.PROP_TITLE));
+                record.props.setProperty(Record.PROP_COMMENT, program.props.getProperty(Program.PROP_COMMENT));
+                record.props.setProperty(Record.PROP_TIME_START, program.props.getProperty(Program.PROP_TIME_START));
+                record.props.setProperty(Record.PROP_TIME_FINISH, program.props.getProperty(Program.PROP_TIME_FINISH));
+                record.props.setProperty(Record.PROP_FILE_DIR, station.getRecordDirName());
+                record.props.setProperty(Record.PROP_FILE_NAME, station.getRecordFileName(record));
+                String link = record.props.getProperty(Record.PROP_URL);
+                long start = record.getTimeMillis(Record.PROP_TIME_START);
+                long finish = record.getTimeMillis(Record.PROP_TIME_FINISH);
+                if (index.findDuplicate(link, start, finish) != null) {
+                    continue;
+                }
+                // a pending record of the same stream overlapping the program is extended,
+                // records of rules are not saved with the station and are left alone
+                Record pending = null;
+                for (Record item : touched) {
+                    if (item.getTimeMillis(Record.PROP_TIME_START) < finish && start < item.getTimeMillis(Record.PROP_TIME_FINISH)) {
+                        pending = item;
+                        break;
+                    }
+                }
+                if (pending == null) {
+                    for (Record item : index.getOverlapping(link, start, finish)) {
+                        if (item.isStatus(Record.RECORD_PENDING) && item.props.getProperty(RecordRule.PROP_RULE_ID) == null
+                                && station.recordDirector.indexOfItem(item) >= 0) {
+                            pending = item;
+                            break;
+                        }
+                    }
+                }
+                if (pending != null) {
+                    RecordIndex.merge(pending, record);
+                    pending.props.setProperty(Record.PROP_FILE_NAME, station.getRecordFileName(pending));
+                    batch.update(pending);
+                    if (!touched.contains(pending)) {
+                        touched.add(pending);
+                    }
+                } else {
+                    batch.add(record);
+                    touched.add(record);
+                }
+            }
+        });
+    }
+
     private void updateProgramButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_updateProgramButtonActionPerformed
         Station station = getSelectedStation();
 
@@ -841,7 +1092,7 @@ public class MainFrame extends JFrame
             Point pnt = evt.getPoint();
             int sel = stationsTable.rowAtPoint(pnt);
             if (sel >= 0) {
-                editStationDialog(sel);
+                editStationDialog(stationTableModel.getItem(stationsTable.convertRowIndexToModel(sel)));
             }
         } else {
             // do something else
@@ -857,14 +1108,12 @@ public class MainFrame extends JFrame
     }//GEN-LAST:event_helpButtonActionPerformed
 
     private void playStationButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_playStationButtonActionPerformed
-        int playing = RadioRec.getInstance().stationDirector.getPlayingItem();
-        if (playing >= 0) {
-            Station station = RadioRec.getInstance().stationDirector.getItem(playing);
-            station.stopPlaying();
+        Station playing = RadioRec.getInstance().stationDirector.getPlayingStation();
+        if (playing != null) {
+            playing.stopPlaying();
         } else {
-            int sel = stationsTable.getSelectedRow();
-            if (sel >= 0) {
-                Station station = RadioRec.getInstance().stationDirector.getItem(sel);
+            Station station = getSelectedStation();
+            if (station != null) {
                 station.startPlaying();
             }
         }
@@ -884,7 +1133,7 @@ public class MainFrame extends JFrame
 
         ArrayList<Record> list = new ArrayList<>();
         for (int item : sel) {
-            Record record = station.recordDirector.getItem(item);
+            Record record = recordTableModel.getItem(recordTable.convertRowIndexToModel(item));
             if (record.isStatus(Record.RECORD_RUNNING)) {
                 int result = JOptionPane.showConfirmDialog(this,
                         "Finish or cancel the recording '" + record.props.getProperty(Record.PROP_TITLE) + "' ?", "Delete a record",
@@ -901,6 +1150,28 @@ public class MainFrame extends JFrame
                     case JOptionPane.CLOSED_OPTION -> {
                     }
                 }
+            } else if (station.ruleDirector.getRule(record) != null) {
+                RecordRule rule = station.ruleDirector.getRule(record);
+                int result = JOptionPane.showConfirmDialog(this,
+                        MessageFormat.format(radioRec.currentBundle.getString("MainFrame.removeRule.message"),
+                                record.props.getProperty(Record.PROP_TITLE)),
+                        radioRec.currentBundle.getString("MainFrame.removeRule.title"),
+                        JOptionPane.YES_NO_CANCEL_OPTION);
+                switch (result) {
+                    case JOptionPane.YES_OPTION -> {
+                        station.ruleDirector.removeItem(rule);
+                        list.add(record);
+                    }
+                    case JOptionPane.NO_OPTION -> {
+                        // only this occurrence
+                        rule.skipOccurrence(record.getTimeProperty(Record.PROP_TIME_START));
+                        list.add(record);
+                    }
+                    case JOptionPane.CANCEL_OPTION -> {
+                    }
+                    case JOptionPane.CLOSED_OPTION -> {
+                    }
+                }
             } else {
                 list.add(record);
             }
@@ -926,8 +1197,12 @@ public class MainFrame extends JFrame
         dialog.setLocationRelativeTo(null);
         dialog.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
         dialog.setVisible(true);
-        if (dialog.resultOk) {
+        if (dialog.resultOk && !dialog.getRepeat().equals(RecordRule.REPEAT_NONE)) {
+            // the records are created by the rule
+            station.ruleDirector.addItem(RecordRule.fromRecord(record, dialog.getRepeat(), dialog.getRepeatDays(), zone));
+        } else if (dialog.resultOk) {
             record.props.setProperty(Record.PROP_URL, station.props.getProperty(Station.PROP_STATION_LINK));
+            record.props.setProperty(Record.PROP_URL_MIRRORS, station.getStationMirrors());
             record.props.setProperty(Record.PROP_FILE_DIR, station.getRecordDirName());
             record.props.setProperty(Record.PROP_FILE_NAME, station.getRecordFileName(record));
             station.recordDirector.addItem(record);
@@ -942,38 +1217,100 @@ public class MainFrame extends JFrame
             Point pnt = evt.getPoint();
             int sel = recordTable.rowAtPoint(pnt);
             if (sel >= 0) {
-                editRecordDialog(sel);
+                editRecordDialog(recordTableModel.getItem(recordTable.convertRowIndexToModel(sel)));
             }
         } else {
             // do something else
         }
     }//GEN-LAST:event_recordTableMouseClicked
 
+    private void nowGuideButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_nowGuideButtonActionPerformed
+        programGrid.scrollToNow();
+    }//GEN-LAST:event_nowGuideButtonActionPerformed
+
+    private void recordGuideButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_recordGuideButtonActionPerformed
+        programGrid.getSelectedPrograms().forEach((station, programs) -> {
+            if (isAddingManually(station)) {
+                recordPrograms(station, programs);
+            }
+        });
+        programGrid.clearSelection();
+    }//GEN-LAST:event_recordGuideButtonActionPerformed
+
+    private void planRecordButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_planRecordButtonActionPerformed
+        ZoneId zone = ZoneId.of(RadioRec.getInstance().prefs.get(RadioRec.PROP_TIME_ZONE_ID, RadioRec.DEFAULT_TIME_ZONE_ID));
+        CapacityPlanner planner = new CapacityPlanner(zone, RadioRec.getInstance().recordAdmission)
+                .plan(RadioRec.getInstance().stationDirector, ZonedDateTime.now(zone));
+        JTextArea area = new JTextArea(planner.getReport(), 24, 72);
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, area.getFont().getSize()));
+        JOptionPane.showMessageDialog(this, new JScrollPane(area),
+                radioRec.currentBundle.getString("MainFrame.planDialog.title"), JOptionPane.INFORMATION_MESSAGE);
+    }//GEN-LAST:event_planRecordButtonActionPerformed
+
+    private void removeRuleButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_removeRuleButtonActionPerformed
+        int[] sel = ruleTable.getSelectedRows();
+
+        if (sel.length == 0) {
+            return;
+        }
+
+        Station station = getSelectedStation();
+        if (station == null) {
+            return;
+        }
+
+        // pending records of the rules are removed with them
+        ArrayList<RecordRule> list = new ArrayList<>();
+        for (int item : sel) {
+            list.add(ruleTableModel.getItem(ruleTable.convertRowIndexToModel(item)));
+        }
+        station.ruleDirector.removeItems(list);
+    }//GEN-LAST:event_removeRuleButtonActionPerformed
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JButton addRecordButton;
+    private javax.swing.JLabel dashboardLabel;
+    private javax.swing.JPanel dashboardPanel;
+    private javax.swing.JScrollPane dashboardScrollPane;
+    private javax.swing.JTable dashboardTable;
     private javax.swing.JButton editStationButton;
     private javax.swing.Box.Filler filler1;
     private javax.swing.Box.Filler filler2;
     private javax.swing.Box.Filler filler3;
     private javax.swing.Box.Filler filler4;
     private javax.swing.Box.Filler filler5;
+    private javax.swing.Box.Filler filler6;
+    private javax.swing.Box.Filler filler7;
+    private javax.swing.JPanel guidePanel;
+    private javax.swing.JScrollPane guideScrollPane;
     private javax.swing.JButton helpButton;
     private javax.swing.JToolBar jToolBar1;
     private javax.swing.JToolBar jToolBar2;
+    private javax.swing.JToolBar jToolBar3;
+    private javax.swing.JToolBar jToolBar4;
     private javax.swing.JToolBar mainToolBar;
     private javax.swing.JButton newStationButton;
+    private javax.swing.JButton nowGuideButton;
     private javax.swing.JButton openStationButton;
     private javax.swing.JButton playStationButton;
+    private javax.swing.JButton planRecordButton;
+    private cz.marelis.radiorec.ProgramGrid programGrid;
     private javax.swing.JPanel programPanel;
     private javax.swing.JScrollPane programScrollPane;
     private javax.swing.JTable programTable;
+    private javax.swing.JButton recordGuideButton;
     private javax.swing.JPanel recordPanel;
     private javax.swing.JButton recordProgramButton;
     private javax.swing.JScrollPane recordScrollPane;
     private javax.swing.JTable recordTable;
     private javax.swing.JButton removeProgramButton;
     private javax.swing.JButton removeRecordButton;
+    private javax.swing.JButton removeRuleButton;
     private javax.swing.JButton removeStationButton;
+    private javax.swing.JPanel rulePanel;
+    private javax.swing.JScrollPane ruleScrollPane;
+    private javax.swing.JTable ruleTable;
     private javax.swing.JButton settingsButton;
     private javax.swing.JSplitPane splitPane;
     private javax.swing.JPanel stationsPanel;
@@ -992,60 +1329,185 @@ public class MainFrame extends JFrame
      */
     @Override
     public void onResponseEvent(ResponseEvent re) {
-        //System.out.println("MainFrame.onResponseEvent: " + re.toString());
-
-        Object source = re.getSource();
-
-        if (source instanceof StationDirector) {
-
-            stationTableModel.fireTableDataChanged();
-            updateButtons();
-
-        } else if (source instanceof ProgramDirector) {
-
-            programTableModel.fireTableDataChanged();
-            updateButtons();
-
-        } else if (source instanceof RecordDirector) {
+        onResponseEvents(List.of(re));
+    }
 
-            recordTableModel.fireTableDataChanged();
-            updateButtons();
+    /**
+     * Events come from the scheduler and recording threads too, the view bus
+     * merges them and delivers them in batches on the event dispatch thread.
+     * The changed rows are gathered and the tables refreshed once per
+     * interval, not at all while the window is iconified.
+     *
+     * @param batch
+     */
+    @Override
+    public void onResponseEvents(List<ResponseEvent> batch) {
+        for (ResponseEvent re : batch) {
+            Object source = re.getSource();
+            if (source instanceof ResponseList) {
+                // stations, their programs or records
+                dirtyGuide = true;
+            }
+            if (source instanceof StationDirector) {
+                dirtyStations = true;
+            } else if (source == programTableModel.getProgramDirector()) {
+                dirtyPrograms = true;
+            } else if (source == recordTableModel.getRecordDirector()) {
+                dirtyRecords = true;
+            } else if (source == ruleTableModel.getRuleDirector()) {
+                dirtyRules = true;
+            } else if (source instanceof Station || source instanceof Program || source instanceof Record
+                    || source instanceof RecordRule) {
+                dirtyNodes.add((ResponseNode) source);
+                continue;
+            } else {
+                continue;
+            }
+            // items changed in place keep their rows
+            if (re.getId() == ResponseList.EVT_ITEM_CHANGED) {
+                ResponseList.forEachItem(re.getObject(), dirtyNodes::add);
+            } else if (re.getId() == ResponseList.EVT_ITEMS_BATCH) {
+                dirtyNodes.addAll(((ItemChanges<?>) re.getObject()).getUpdated());
+            }
+        }
+        if (!iconified && !refreshTimer.isRunning()) {
+            refreshTimer.start();
+        }
+    }
 
-        } else if (source instanceof Station station) {
+    private void refreshTables() {
+        if (iconified) {
+            return;
+        }
+        if (dirtyStations) {
+            stationTableModel.listChanged();
+        }
+        if (dirtyPrograms) {
+            programTableModel.listChanged();
+        }
+        if (dirtyRecords) {
+            recordTableModel.listChanged();
+        }
+        if (dirtyRules) {
+            ruleTableModel.listChanged();
+        }
+        dirtyStations = dirtyPrograms = dirtyRecords = dirtyRules = false;
+        if (dirtyGuide && tabbedPane.getSelectedComponent() == guidePanel) {
+            dirtyGuide = false;
+            programGrid.stationsChanged();
+        }
 
-            int idx = RadioRec.getInstance().stationDirector.indexOfItem(station);
-            if (idx >= 0) {
-                stationTableModel.fireTableRowsUpdated(idx, idx);
-                updateButtons();
+        Station selected = getSelectedStation();
+        List<ResponseNode> stationRows = new ArrayList<>();
+        List<ResponseNode> programRows = new ArrayList<>();
+        List<ResponseNode> recordRows = new ArrayList<>();
+        List<ResponseNode> ruleRows = new ArrayList<>();
+        for (ResponseNode node : dirtyNodes) {
+            if (node instanceof Station) {
+                stationRows.add(node);
+            } else if (node instanceof Program) {
+                programRows.add(node);
+            } else if (node instanceof Record) {
+                recordRows.add(node);
+                if (selected != null) {
+                    stationRows.add(selected);
+                }
+            } else if (node instanceof RecordRule) {
+                ruleRows.add(node);
             }
+        }
+        dirtyNodes.clear();
+        stationTableModel.itemsUpdated(stationRows);
+        keepSorted(stationsTable, stationTableModel, stationRows);
+        programTableModel.itemsUpdated(programRows);
+        keepSorted(programTable, programTableModel, programRows);
+        recordTableModel.itemsUpdated(recordRows);
+        keepSorted(recordTable, recordTableModel, recordRows);
+        ruleTableModel.itemsUpdated(ruleRows);
+        updateButtons();
+    }
 
-        } else if (source instanceof Program program) {
-
-            Station station = getSelectedStation();
-            if (station == null) {
-                return;
+    private void tabChanged() {
+        if (tabbedPane.getSelectedComponent() == rulePanel) {
+            // the next occurrences move on with the time
+            ruleTableModel.itemsUpdated(ruleTableModel.getSnapshot());
+        }
+        if (tabbedPane.getSelectedComponent() == guidePanel) {
+            if (dirtyGuide) {
+                dirtyGuide = false;
+                programGrid.stationsChanged();
             }
-            int idx = station.programDirector.indexOfItem(program);
-            if (idx >= 0) {
-                programTableModel.fireTableRowsUpdated(idx, idx);
-                updateButtons();
+            if (!guideShown) {
+                guideShown = true;
+                EventQueue.invokeLater(programGrid::scrollToNow);
             }
+        }
+        updateDashboardTimer();
+    }
 
-        } else if (source instanceof Record record) {
-
-            Station station = getSelectedStation();
-            if (station == null) {
-                return;
+    private void updateDashboardTimer() {
+        if (!iconified && tabbedPane.getSelectedComponent() == dashboardPanel) {
+            if (!dashboardTimer.isRunning()) {
+                refreshDashboard();
+                dashboardTimer.start();
             }
-            int idx = RadioRec.getInstance().stationDirector.indexOfItem(station);
-            if (idx >= 0) {
-                stationTableModel.fireTableRowsUpdated(idx, idx);
+        } else {
+            dashboardTimer.stop();
+        }
+    }
+
+    /**
+     * The rows come from the active record index and the totals from the
+     * counters of the stations, no station is gone through record by record.
+     */
+    private void refreshDashboard() {
+        dashboardTableModel.refresh();
+        int active = 0;
+        int upcoming = 0;
+        long bytes = 0;
+        for (Station station : radioRec.stationDirector.getSnapshot()) {
+            RecordStats stats = station.recordStats;
+            active += stats.getCount(Record.RECORD_STARTUP) + stats.getCount(Record.RECORD_RUNNING)
+                    + stats.getCount(Record.RECORD_STOPPING);
+            upcoming += stats.getCount(Record.RECORD_PENDING) + stats.getCount(Record.RECORD_DEFERRED);
+            bytes += stats.getBytesToday();
+        }
+        dashboardLabel.setText(MessageFormat.format(radioRec.currentBundle.getString("Dashboard.Summary"),
+                active, upcoming, CapacityPlanner.formatBytes(bytes)));
+    }
+
+    /**
+     * The sorters do not sort on updates, the rows are sorted again only when
+     * an updated row is out of order with its neighbours.
+     *
+     * @param table
+     * @param model
+     * @param items updated items
+     */
+    @SuppressWarnings("unchecked")
+    private static void keepSorted(JTable table, ResponseTableModel<?> model, Collection<ResponseNode> items) {
+        if (items.isEmpty() || !(table.getRowSorter() instanceof TableRowSorter<?> sorter)
+                || sorter.getSortKeys().isEmpty()) {
+            return;
+        }
+        RowSorter.SortKey key = sorter.getSortKeys().get(0);
+        if (key.getSortOrder() == SortOrder.UNSORTED) {
+            return;
+        }
+        Comparator<Object> comparator = (Comparator<Object>) sorter.getComparator(key.getColumn());
+        int sign = key.getSortOrder() == SortOrder.DESCENDING ? -1 : 1;
+        int count = sorter.getViewRowCount();
+        for (ResponseNode item : items) {
+            int idx = model.indexOfItem(item);
+            if (idx < 0) {
+                continue;
             }
-            idx = station.recordDirector.indexOfItem(record);
-            if (idx >= 0) {
-                recordTableModel.fireTableRowsUpdated(idx, idx);
+            int view = sorter.convertRowIndexToView(idx);
+            if (view > 0 && sign * comparator.compare(model.getItem(sorter.convertRowIndexToModel(view - 1)), item) > 0
+                    || view >= 0 && view + 1 < count && sign * comparator.compare(item, model.getItem(sorter.convertRowIndexToModel(view + 1))) > 0) {
+                sorter.sort();
+                return;
             }
-            updateButtons();
         }
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency and error statistics of stream links shared by all recordings.
+ * Links are ranked by the smoothed connect latency, penalized by recent
+ * errors. Errors are forgotten with a half life, so a link that failed once
+ * gets its chance again later.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class MirrorHealth {
+
+    // weight of a new latency sample
+    private final static double LATENCY_ALPHA = 0.3;
+    // latency assumed for a link never connected
+    private final static double LATENCY_UNKNOWN = 500.0;
+    // every recent error costs as much as this latency in milliseconds
+    private final static double ERROR_PENALTY = 5_000.0;
+    private final static long ERROR_HALF_LIFE = 5 * 60_000;
+
+    private static class Stats {
+
+        double latency = Double.NaN;
+        double errors;
+        long errorTime;
+        long connects;
+        long failures;
+
+        double getErrors(long now) {
+            return errors * Math.pow(0.5, (double) (now - errorTime) / ERROR_HALF_LIFE);
+        }
+
+        double getScore(long now) {
+            return (Double.isNaN(latency) ? LATENCY_UNKNOWN : latency) + getErrors(now) * ERROR_PENALTY;
+        }
+    }
+
+    private final Map<String, Stats> stats = new HashMap<>();
+
+    /**
+     *
+     * @param link
+     * @param latency milliseconds until the response headers arrived
+     */
+    public synchronized void success(String link, long latency) {
+        Stats item = stats.computeIfAbsent(link, key -> new Stats());
+        item.latency = Double.isNaN(item.latency) ? latency
+                : item.latency + LATENCY_ALPHA * (latency - item.latency);
+        item.connects++;
+    }
+
+    /**
+     * Failed connect, wrong response or stalled stream.
+     *
+     * @param link
+     */
+    public synchronized void failure(String link) {
+        long now = System.currentTimeMillis();
+        Stats item = stats.computeIfAbsent(link, key -> new Stats());
+        item.errors = item.getErrors(now) + 1.0;
+        item.errorTime = now;
+        item.failures++;
+    }
+
+    /**
+     *
+     * @param links in the preferred order
+     * @return links from the healthiest, the order is kept for equal scores
+     */
+    public synchronized List<String> rank(List<String> links) {
+        long now = System.currentTimeMillis();
+        ArrayList<String> result = new ArrayList<>(links);
+        result.sort(Comparator.comparingDouble(link -> {
+            Stats item = stats.get(link);
+            return item != null ? item.getScore(now) : LATENCY_UNKNOWN;
+        }));
+        return result;
+    }
+
+    /**
+     *
+     * @param link
+     * @return
+     */
+    public synchronized String toString(String link) {
+        Stats item = stats.get(link);
+        if (item == null) {
+            return link + " (unknown)";
+        }
+        return String.format("%s (latency %.0f ms, connects %d, failures %d)",
+                link, item.latency, item.connects, item.failures);
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * String properties of a node. The properties known by the schema of the
+ * node class are kept in slots of an array, other ones in a map created for
+ * the first of them. A time property keeps its parsed epoch milliseconds,
+ * the string is dropped once it can be formatted back exactly.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class NodeProps {
+
+    /**
+     * Properties known by a node class, shared by all its nodes.
+     */
+    public final static class Schema {
+
+        /**
+         * Schema without known properties
+         */
+        public final static Schema EMPTY = new Schema(new String[0]);
+
+        private final String[] keys;
+
+        private final Map<String, Integer> slots = new HashMap<>();
+
+        private final boolean[] time;
+
+        /**
+         *
+         * @param keys known properties
+         * @param timeKeys known properties holding times
+         */
+        public Schema(String[] keys, String... timeKeys) {
+            this.keys = keys.clone();
+            this.time = new boolean[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                slots.putIfAbsent(keys[i], i);
+            }
+            for (String key : timeKeys) {
+                time[slots.get(key)] = true;
+            }
+        }
+
+        private int slotOf(Object key) {
+            Integer slot = slots.get(key);
+            return slot != null ? slot : -1;
+        }
+    }
+
+    private final static DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    // a time slot not parsed yet
+    private final static long NO_TIME = Long.MIN_VALUE;
+
+    // time texts parsed by all nodes, a cached time is read without parsing
+    private final static LongAdder PARSES = new LongAdder();
+
+    private final Schema schema;
+
+    // null for a missing property, or for a time kept by its milliseconds only
+    private final String[] values;
+
+    private final long[] times;
+
+    private HashMap<String, String> overflow;
+
+    private int modCount;
+
+    /**
+     *
+     * @param schema
+     */
+    public NodeProps(Schema schema) {
+        this.schema = schema;
+        this.values = new String[schema.keys.length];
+        this.times = new long[schema.keys.length];
+        Arrays.fill(times, NO_TIME);
+    }
+
+    private static String format(long millis) {
+        return FORMATTER.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+
+    private static long parse(String value) {
+        PARSES.increment();
+        return LocalDateTime.parse(value, FORMATTER).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     *
+     * @return number of time texts parsed so far
+     */
+    static long getParseCount() {
+        return PARSES.sum();
+    }
+
+    /**
+     *
+     * @param key
+     * @return value, or null when missing
+     */
+    public synchronized String getProperty(String key) {
+        int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return overflow != null ? overflow.get(key) : null;
+        }
+        String value = values[slot];
+        if (value == null && times[slot] != NO_TIME) {
+            value = format(times[slot]);
+        }
+        return value;
+    }
+
+    /**
+     *
+     * @param key
+     * @param defaultValue
+     * @return value, or the default value when missing
+     */
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     *
+     * @param key
+     * @param value
+     * @return previous value, or null
+     */
+    public synchronized String setProperty(String key, String value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        String old = getProperty(key);
+        int slot = schema.slotOf(key);
+        if (slot < 0) {
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            overflow.put(key, value);
+        } else {
+            values[slot] = value;
+            times[slot] = NO_TIME;
+        }
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Sets a time property by its epoch milliseconds.
+     *
+     * @param key
+     * @param millis
+     */
+    public synchronized void setTimeMillis(String key, long millis) {
+        int slot = schema.slotOf(key);
+        if (slot >= 0 && schema.time[slot]) {
+            values[slot] = null;
+            times[slot] = millis;
+            modCount++;
+        } else {
+            setProperty(key, format(millis));
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @return time property in epoch milliseconds
+     */
+    public synchronized long getTimeMillis(String key) {
+        int slot = schema.slotOf(key);
+        if (slot < 0 || !schema.time[slot]) {
+            return parse(getProperty(key));
+        }
+        if (times[slot] == NO_TIME) {
+            String value = values[slot];
+            times[slot] = parse(value);
+            if (value.equals(format(times[slot]))) {
+                values[slot] = null;
+            }
+        }
+        return times[slot];
+    }
+
+    /**
+     *
+     * @param key
+     * @return
+     */
+    public synchronized boolean containsKey(Object key) {
+        int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return overflow != null && overflow.containsKey(key);
+        }
+        return values[slot] != null || times[slot] != NO_TIME;
+    }
+
+    /**
+     *
+     */
+    public synchronized void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(times, NO_TIME);
+        overflow = null;
+        modCount++;
+    }
+
+    /**
+     * Values made from the properties and kept aside are out of date when
+     * the count differs.
+     *
+     * @return number of changes of the properties
+     */
+    public synchronized int getModCount() {
+        return modCount;
+    }
+
+    /**
+     *
+     * @return the known properties in the order of the schema, then the
+     * other ones
+     */
+    public synchronized Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            String value = getProperty(schema.keys[i]);
+            if (value != null) {
+                map.put(schema.keys[i], value);
+            }
+        }
+        if (overflow != null) {
+            map.putAll(overflow);
+        }
+        return map;
+    }
+
+    /**
+     *
+     * @return names of the properties
+     */
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(toMap().keySet());
+    }
+
+    /**
+     *
+     * @param obj
+     * @return
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof NodeProps other && toMap().equals(other.toMap());
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public int hashCode() {
+        return toMap().hashCode();
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+}
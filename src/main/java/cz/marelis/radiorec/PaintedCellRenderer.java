@@ -0,0 +1,291 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.util.Map;
+import javax.swing.JComponent;
+import javax.swing.JTable;
+import javax.swing.UIManager;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * Cell of a program or a record painted directly, without a panel of
+ * labels to lay out for every cell. The first line shows the time, the
+ * status, the progress and the duration, then the title and the comment.
+ * The fonts and colors are taken once and again when the look and feel
+ * changes.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public abstract class PaintedCellRenderer extends JComponent implements TableCellRenderer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final static int GAP = 8;
+    private final static int LINE_GAP = 4;
+    private final static int BAR_WIDTH = 80;
+    private final static int BAR_HEIGHT = 4;
+
+    /**
+     *
+     */
+    protected final static Color TIME_COLOR = new Color(0, 204, 153);
+
+    /**
+     *
+     */
+    protected final transient RadioRec radioRec = RadioRec.getInstance();
+
+    /**
+     *
+     */
+    protected final Font glyphFont;
+
+    private Font labelFont;
+    private Font titleFont;
+    private Font commentFont;
+    private Color labelForeground;
+    private Color barBackground;
+    private Color barForeground;
+    private transient Map<?, ?> desktopHints;
+
+    /**
+     *
+     */
+    protected String time;
+
+    /**
+     *
+     */
+    protected String glyph;
+
+    /**
+     *
+     */
+    protected Color glyphColor;
+
+    /**
+     * Percent done, or -1 without the progress bar.
+     */
+    protected int progress;
+
+    /**
+     *
+     */
+    protected String duration;
+
+    /**
+     * Color of the duration, or null for the label color.
+     */
+    protected Color durationColor;
+
+    /**
+     *
+     */
+    protected String title;
+
+    /**
+     *
+     */
+    protected String comment;
+
+    /**
+     *
+     */
+    public PaintedCellRenderer() {
+        glyphFont = radioRec.fontAwesomeRegular.deriveFont(Font.PLAIN, 14f);
+        setOpaque(true);
+        updateUI();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public final void updateUI() {
+        super.updateUI();
+        labelFont = UIManager.getFont("Label.font");
+        titleFont = new Font("Segoe UI", Font.BOLD, 12);
+        commentFont = new Font("Segoe UI", Font.ITALIC, 12);
+        labelForeground = UIManager.getColor("Label.foreground");
+        barBackground = UIManager.getColor("ProgressBar.background");
+        barForeground = UIManager.getColor("ProgressBar.foreground");
+        desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+    }
+
+    /**
+     * Sets the fields shown for the value.
+     *
+     * @param value
+     */
+    protected abstract void setValue(Object value);
+
+    /**
+     *
+     * @param table
+     * @param value
+     * @param isSelected
+     * @param hasFocus
+     * @param row
+     * @param column
+     * @return
+     */
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
+            int row, int column) {
+        setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+        setValue(value);
+        return this;
+    }
+
+    /**
+     *
+     * @param g
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        int width = getWidth();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, width, getHeight());
+        if (desktopHints != null) {
+            g2.addRenderingHints(desktopHints);
+        }
+
+        FontMetrics labelMetrics = g2.getFontMetrics(labelFont);
+        FontMetrics glyphMetrics = g2.getFontMetrics(glyphFont);
+        FontMetrics titleMetrics = g2.getFontMetrics(titleFont);
+        FontMetrics commentMetrics = g2.getFontMetrics(commentFont);
+        int firstHeight = Math.max(labelMetrics.getHeight(), glyphMetrics.getHeight());
+        int height = firstHeight + LINE_GAP + titleMetrics.getHeight() + LINE_GAP + commentMetrics.getHeight();
+        int y = Math.max(0, (getHeight() - height) / 2);
+        int left = GAP;
+        int right = width - GAP;
+
+        // time, status, progress and duration
+        int x = left;
+        int baseline = y + (firstHeight - labelMetrics.getHeight()) / 2 + labelMetrics.getAscent();
+        g2.setFont(labelFont);
+        g2.setColor(TIME_COLOR);
+        g2.drawString(time, x, baseline);
+        x += labelMetrics.stringWidth(time) + GAP;
+        if (glyph != null) {
+            g2.setFont(glyphFont);
+            g2.setColor(glyphColor != null ? glyphColor : labelForeground);
+            g2.drawString(glyph, x, y + (firstHeight - glyphMetrics.getHeight()) / 2 + glyphMetrics.getAscent());
+            x += glyphMetrics.stringWidth(glyph) + GAP;
+        }
+        int durationWidth = labelMetrics.stringWidth(duration);
+        g2.setFont(labelFont);
+        g2.setColor(durationColor != null ? durationColor : TIME_COLOR);
+        g2.drawString(duration, right - durationWidth, baseline);
+        if (progress >= 0) {
+            int barWidth = Math.min(Math.max(BAR_WIDTH, right - durationWidth - GAP - x), right - x);
+            int barY = y + (firstHeight - BAR_HEIGHT) / 2;
+            g2.setColor(barBackground != null ? barBackground : Color.LIGHT_GRAY);
+            g2.fillRect(x, barY, barWidth, BAR_HEIGHT);
+            g2.setColor(barForeground != null ? barForeground : TIME_COLOR);
+            g2.fillRect(x, barY, barWidth * Math.min(progress, 100) / 100, BAR_HEIGHT);
+        }
+
+        // title and comment
+        y += firstHeight + LINE_GAP;
+        g2.setColor(labelForeground);
+        g2.setFont(titleFont);
+        g2.drawString(clip(title, titleMetrics, right - left), left, y + titleMetrics.getAscent());
+        y += titleMetrics.getHeight() + LINE_GAP;
+        g2.setFont(commentFont);
+        g2.drawString(clip(comment, commentMetrics, right - left), left, y + commentMetrics.getAscent());
+    }
+
+    /**
+     *
+     * @param text
+     * @param metrics
+     * @param width
+     * @return the text, shortened with an ellipsis when wider
+     */
+    private static String clip(String text, FontMetrics metrics, int width) {
+        if (metrics.stringWidth(text) <= width) {
+            return text;
+        }
+        String ellipsis = "...";
+        int avail = width - metrics.stringWidth(ellipsis);
+        int lo = 0, hi = text.length();
+        while (lo < hi) {
+            int mid = (lo + hi + 1) / 2;
+            if (metrics.stringWidth(text.substring(0, mid)) <= avail) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return text.substring(0, lo) + ellipsis;
+    }
+
+    // a renderer is only painted, the default notifications are not needed
+
+    /**
+     *
+     */
+    @Override
+    public void invalidate() {
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void validate() {
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void revalidate() {
+    }
+
+    /**
+     *
+     * @param tm
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     */
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    /**
+     *
+     * @param propertyName
+     * @param oldValue
+     * @param newValue
+     */
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+
+}
@@ -15,7 +15,7 @@
  */
 package cz.marelis.radiorec;
 
-import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 /**
@@ -65,10 +65,18 @@ public class Program extends ResponseNode
      */
     public final static int STATUS_FUTURE = 3;
 
+    // properties kept in slots
+    private final static NodeProps.Schema SCHEMA = new NodeProps.Schema(
+            new String[]{PROP_TIME_START, PROP_TIME_FINISH, PROP_TITLE, PROP_COMMENT},
+            PROP_TIME_START, PROP_TIME_FINISH);
+
+    private volatile CellText cellText;
+
     /**
      *
      */
     public Program() {
+        super(SCHEMA);
         props.setProperty(PROP_TIME_START, "");
         props.setProperty(PROP_TIME_FINISH, "");
         props.setProperty(PROP_TITLE, "");
@@ -81,21 +89,17 @@ public class Program extends ResponseNode
      */
     @Override
     public void update(ZonedDateTime time) {
-        ZonedDateTime start = getTimeProperty(Program.PROP_TIME_START);
-        ZonedDateTime finish = getTimeProperty(Program.PROP_TIME_FINISH);
-        if (time.isAfter(finish)) {
+        long now = time.toInstant().toEpochMilli();
+        long start = getTimeMillis(Program.PROP_TIME_START);
+        long finish = getTimeMillis(Program.PROP_TIME_FINISH);
+        if (now > finish) {
             setStatus(STATUS_PREVIOUS);
             setProgress(100);
             setRemove(true);
         } else {
-            if (time.isAfter(start)) {
+            if (now > start) {
                 setStatus(STATUS_CURRENT);
-                double one = (Duration.between(start, finish).toSeconds() / 100.0);
-                if (one > 0) {
-                    Duration dur = Duration.between(start, time);
-                    int newProgress = (int) (dur.toSeconds() / one);
-                    setProgress(newProgress);
-                }
+                setProgress(getProgress(start, finish, now));
             } else {
                 setStatus(STATUS_FUTURE);
                 setProgress(0);
@@ -103,6 +107,38 @@ public class Program extends ResponseNode
         }
     }
 
+    /**
+     *
+     * @param time
+     * @return
+     */
+    @Override
+    public ZonedDateTime getNextUpdate(ZonedDateTime time) {
+        long now = time.toInstant().toEpochMilli();
+        long start = getTimeMillis(Program.PROP_TIME_START);
+        long finish = getTimeMillis(Program.PROP_TIME_FINISH);
+        // the status changes once the time is past the start or the finish
+        if (now <= start) {
+            return toTime(start + 1);
+        }
+        if (now <= finish) {
+            long next = getNextProgressTime(start, finish, now);
+            return toTime(next < finish ? next : finish + 1);
+        }
+        return time;
+    }
+
+    /**
+     *
+     * @param zone
+     * @return display strings for the table cell
+     */
+    public CellText getCellText(ZoneId zone) {
+        CellText text = CellText.of(this, zone, cellText);
+        cellText = text;
+        return text;
+    }
+
     /**
      *
      * @param o
@@ -110,22 +146,11 @@ public class Program extends ResponseNode
      */
     @Override
     public int compareTo(Program o) {
-        ZonedDateTime start1 = getTimeProperty(Program.PROP_TIME_START);
-        ZonedDateTime finish1 = getTimeProperty(Program.PROP_TIME_FINISH);
-        ZonedDateTime start2 = o.getTimeProperty(Program.PROP_TIME_START);
-        ZonedDateTime finish2 = o.getTimeProperty(Program.PROP_TIME_FINISH);
-        if (start1.isAfter(start2)) {
-            return 1;
-        }
-        if (start1.isEqual(start2)) {
-            if (finish1.isAfter(finish2)) {
-                return 1;
-            }
-            if (finish1.isEqual(finish2)) {
-                return 0;
-            }
+        int cmp = Long.compare(getTimeMillis(Program.PROP_TIME_START), o.getTimeMillis(Program.PROP_TIME_START));
+        if (cmp != 0) {
+            return cmp;
         }
-        return -1;
+        return Long.compare(getTimeMillis(Program.PROP_TIME_FINISH), o.getTimeMillis(Program.PROP_TIME_FINISH));
     }
 
 }
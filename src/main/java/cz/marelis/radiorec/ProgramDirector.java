@@ -23,6 +23,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jsoup.nodes.Document;
@@ -35,6 +37,11 @@ import org.jsoup.select.Elements;
  */
 public class ProgramDirector extends ResponseList<Program> {
 
+    private final Object timeIndexLock = new Object();
+
+    // built by the first query after a change
+    private ProgramTimeIndex timeIndex;
+
     /**
      *
      * @return
@@ -202,19 +209,40 @@ public class ProgramDirector extends ResponseList<Program> {
 
     /**
      *
-     * @param time
+     * @return programs indexed by time
+     */
+    public ProgramTimeIndex getTimeIndex() {
+        synchronized (timeIndexLock) {
+            if (timeIndex == null) {
+                timeIndex = ProgramTimeIndex.build(getSnapshot());
+            }
+            return timeIndex;
+        }
+    }
+
+    /**
+     * Programs added in the order of time are appended to the index, other
+     * changes drop it.
+     *
+     * @param id
+     * @param obj
      */
     @Override
-    public void update(ZonedDateTime time) {
-        ArrayList<Program> list = new ArrayList<>();
-        for (Program program : this) {
-            if (program.isRemove()) {
-                list.add(program);
+    @SuppressWarnings("unchecked")
+    protected void itemsChanged(int id, Object obj) {
+        synchronized (timeIndexLock) {
+            if (id == EVT_ITEM_ADDED && timeIndex != null) {
+                Collection<Program> added = obj instanceof Collection<?> c ? (Collection<Program>) c : List.of((Program) obj);
+                timeIndex = timeIndex.append(added, itemsCount());
+            } else if (id == EVT_ITEMS_BATCH && timeIndex != null
+                    && obj instanceof ItemChanges<?> changes
+                    && changes.getRemoved().isEmpty() && changes.getUpdated().isEmpty()) {
+                // a batch of additions only, inserted at the end of the list
+                timeIndex = timeIndex.append((List<Program>) changes.getInserted(), itemsCount());
             } else {
-                program.update(time);
+                timeIndex = null;
             }
         }
-        removeItems(list);
     }
 
 }
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Toolkit;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.ToolTipManager;
+import javax.swing.UIManager;
+
+/**
+ * Program guide of all stations, a row of each station along the time of a
+ * week. The grid is painted directly, only the rows and the programs within
+ * the clip are looked up in the time indexes of the stations, so no
+ * component is made for a program. The names of the stations and the time
+ * scale are painted by the headers of the scroll pane.
+ *
+ * Programs are selected by a click, with the control key more of them.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ProgramGrid extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Property fired when the selected programs change.
+     */
+    public final static String PROP_SELECTION = "selection";
+
+    private final static int ROW_HEIGHT = 44;
+    private final static int HEADER_WIDTH = 150;
+    private final static int HEADER_HEIGHT = 24;
+    private final static int PIXELS_PER_HOUR = 240;
+    private final static int DAYS_BEFORE = 1;
+    private final static int DAYS = 8;
+    private final static int GAP = 4;
+
+    private final static Color NOW_COLOR = new Color(230, 60, 60);
+    private final static Color RECORD_COLOR = new Color(0, 204, 153);
+
+    private final static DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private final static DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE d.M.");
+
+    private final transient RadioRec radioRec = RadioRec.getInstance();
+
+    private final transient StationDirector stationDirector;
+
+    // stations in the order of the rows
+    private transient Station[] stations = new Station[0];
+
+    private final transient Map<Program, Station> selected = new IdentityHashMap<>();
+
+    // left edge in epoch seconds, midnight of the first day
+    private long origin;
+    private LocalDate originDay;
+    private transient ZoneId zone;
+
+    private final JComponent rowHeader = new RowHeader();
+    private final JComponent columnHeader = new TimeHeader();
+
+    private Font labelFont;
+    private Font titleFont;
+    private Color background;
+    private Color foreground;
+    private Color cellBackground;
+    private Color selectionBackground;
+    private Color selectionForeground;
+    private Color gridColor;
+    private transient Map<?, ?> desktopHints;
+
+    /**
+     *
+     * @param stationDirector
+     */
+    public ProgramGrid(StationDirector stationDirector) {
+        this.stationDirector = stationDirector;
+        setOpaque(true);
+        updateUI();
+        updateOrigin();
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (e.getButton() == MouseEvent.BUTTON1) {
+                    select(e.getPoint(), e.isControlDown() || e.isMetaDown());
+                }
+            }
+        });
+        ToolTipManager.sharedInstance().registerComponent(this);
+        stationsChanged();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public final void updateUI() {
+        super.updateUI();
+        labelFont = UIManager.getFont("Label.font");
+        titleFont = labelFont != null ? labelFont.deriveFont(Font.BOLD) : null;
+        background = UIManager.getColor("Table.background");
+        foreground = UIManager.getColor("Table.foreground");
+        cellBackground = UIManager.getColor("Panel.background");
+        selectionBackground = UIManager.getColor("Table.selectionBackground");
+        selectionForeground = UIManager.getColor("Table.selectionForeground");
+        gridColor = UIManager.getColor("Table.gridColor");
+        desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+    }
+
+    /**
+     *
+     * @return names of the stations for the row header
+     */
+    public JComponent getRowHeader() {
+        return rowHeader;
+    }
+
+    /**
+     *
+     * @return time scale for the column header
+     */
+    public JComponent getColumnHeader() {
+        return columnHeader;
+    }
+
+    /**
+     * Takes the stations again, after they or their programs changed.
+     * Selected programs no longer in their station are dropped.
+     */
+    public void stationsChanged() {
+        List<Station> list = new ArrayList<>(stationDirector.getSnapshot());
+        list.sort(Station::compareTo);
+        stations = list.toArray(Station[]::new);
+        int count = selected.size();
+        selected.entrySet().removeIf(e -> e.getValue().programDirector.indexOfItem(e.getKey()) < 0);
+        updateOrigin();
+        revalidate();
+        rowHeader.revalidate();
+        repaint();
+        rowHeader.repaint();
+        columnHeader.repaint();
+        if (count != selected.size()) {
+            firePropertyChange(PROP_SELECTION, count, selected.size());
+        }
+    }
+
+    // the grid starts the day before today in the time zone of the app
+    private void updateOrigin() {
+        zone = radioRec.getTimeZone();
+        LocalDate day = LocalDate.now(zone).minusDays(DAYS_BEFORE);
+        if (!day.equals(originDay)) {
+            originDay = day;
+            origin = day.atStartOfDay(zone).toEpochSecond();
+            columnHeader.repaint();
+        }
+    }
+
+    /**
+     * Scrolls the current time into view.
+     */
+    public void scrollToNow() {
+        updateOrigin();
+        Rectangle visible = getVisibleRect();
+        int x = toX(System.currentTimeMillis() / 1000) - visible.width / 4;
+        scrollRectToVisible(new Rectangle(Math.max(0, x), visible.y, visible.width, Math.max(1, visible.height)));
+    }
+
+    private int toX(long seconds) {
+        return (int) ((seconds - origin) * PIXELS_PER_HOUR / 3600);
+    }
+
+    private long toSeconds(int x) {
+        return origin + (long) x * 3600 / PIXELS_PER_HOUR;
+    }
+
+    private int getWidthOfGrid() {
+        return DAYS * 24 * PIXELS_PER_HOUR;
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(getWidthOfGrid(), stations.length * ROW_HEIGHT);
+    }
+
+    /**
+     *
+     * @param point
+     * @return station of the row at the point, or null
+     */
+    public Station getStationAt(Point point) {
+        int row = point.y / ROW_HEIGHT;
+        return point.y >= 0 && row < stations.length ? stations[row] : null;
+    }
+
+    /**
+     *
+     * @param point
+     * @return program at the point, or null
+     */
+    public Program getProgramAt(Point point) {
+        Station station = getStationAt(point);
+        return station != null ? station.programDirector.getTimeIndex().getProgramAt(toSeconds(point.x)) : null;
+    }
+
+    private void select(Point point, boolean toggle) {
+        int count = selected.size();
+        Station station = getStationAt(point);
+        Program program = getProgramAt(point);
+        if (!toggle) {
+            selected.clear();
+        }
+        if (program != null && (!toggle || selected.remove(program) == null)) {
+            selected.put(program, station);
+        }
+        repaint();
+        firePropertyChange(PROP_SELECTION, count, selected.size());
+    }
+
+    /**
+     *
+     * @return number of the selected programs
+     */
+    public int getSelectionCount() {
+        return selected.size();
+    }
+
+    /**
+     *
+     * @return selected programs by their stations, in the order of the rows
+     */
+    public Map<Station, List<Program>> getSelectedPrograms() {
+        Map<Station, List<Program>> result = new LinkedHashMap<>();
+        for (Station station : stations) {
+            for (Map.Entry<Program, Station> e : selected.entrySet()) {
+                if (e.getValue() == station) {
+                    result.computeIfAbsent(station, key -> new ArrayList<>()).add(e.getKey());
+                }
+            }
+        }
+        result.values().forEach(list -> list.sort(Program::compareTo));
+        return result;
+    }
+
+    /**
+     *
+     */
+    public void clearSelection() {
+        int count = selected.size();
+        selected.clear();
+        repaint();
+        firePropertyChange(PROP_SELECTION, count, 0);
+    }
+
+    /**
+     *
+     * @param event
+     * @return title and time of the program under the mouse
+     */
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        Program program = getProgramAt(event.getPoint());
+        if (program == null) {
+            return null;
+        }
+        CellText text = program.getCellText(zone);
+        return text.title + " (" + text.time + ", " + text.duration + ")";
+    }
+
+    /**
+     *
+     * @param g
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2.setColor(background);
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (desktopHints != null) {
+            g2.addRenderingHints(desktopHints);
+        }
+
+        // hour lines
+        long from = toSeconds(clip.x);
+        long to = toSeconds(clip.x + clip.width) + 1;
+        g2.setColor(gridColor);
+        for (long hour = origin + Math.max(0, (from - origin) / 3600) * 3600; hour < to; hour += 3600) {
+            int x = toX(hour);
+            g2.drawLine(x, clip.y, x, clip.y + clip.height);
+        }
+
+        // programs of the rows in the clip
+        int first = Math.max(0, clip.y / ROW_HEIGHT);
+        int last = Math.min(stations.length - 1, (clip.y + clip.height - 1) / ROW_HEIGHT);
+        int textLeft = getVisibleRect().x;
+        FontMetrics labelMetrics = g2.getFontMetrics(labelFont);
+        FontMetrics titleMetrics = g2.getFontMetrics(titleFont);
+        RecordIndex recordIndex = radioRec.recordIndex;
+        for (int row = first; row <= last; row++) {
+            Station station = stations[row];
+            int y = row * ROW_HEIGHT;
+            String link = station.props.getProperty(Station.PROP_STATION_LINK, "");
+            station.programDirector.getTimeIndex().forEachOverlapping(from, to, (program, start, finish) -> {
+                int x1 = toX(start);
+                int width = Math.max(1, toX(finish) - x1 - 1);
+                boolean isSelected = selected.containsKey(program);
+                g2.setColor(isSelected ? selectionBackground : cellBackground);
+                g2.fillRect(x1 + 1, y + 1, width, ROW_HEIGHT - 2);
+                if (recordIndex.covers(link, start * 1000, finish * 1000)) {
+                    g2.setColor(RECORD_COLOR);
+                    g2.fillRect(x1 + 1, y + ROW_HEIGHT - 4, width, 3);
+                }
+                if (width <= 2 * GAP) {
+                    return;
+                }
+                // the text stays in view while the program goes on
+                int textX = Math.max(x1, textLeft) + GAP;
+                CellText text = program.getCellText(zone);
+                Shape oldClip = g2.getClip();
+                g2.clipRect(x1 + 1, y + 1, width - GAP, ROW_HEIGHT - 2);
+                g2.setColor(isSelected ? selectionForeground : foreground);
+                g2.setFont(titleFont);
+                g2.drawString(text.title, textX, y + GAP + titleMetrics.getAscent());
+                g2.setFont(labelFont);
+                g2.setColor(RECORD_COLOR);
+                g2.drawString(text.time, textX, y + GAP + titleMetrics.getHeight() + labelMetrics.getAscent());
+                g2.setClip(oldClip);
+            });
+            g2.setColor(gridColor);
+            g2.drawLine(clip.x, y + ROW_HEIGHT - 1, clip.x + clip.width, y + ROW_HEIGHT - 1);
+        }
+
+        // current time
+        int now = toX(System.currentTimeMillis() / 1000);
+        if (now >= clip.x && now < clip.x + clip.width) {
+            g2.setColor(NOW_COLOR);
+            g2.drawLine(now, clip.y, now, clip.y + clip.height);
+        }
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(600, 10 * ROW_HEIGHT);
+    }
+
+    /**
+     *
+     * @param visibleRect
+     * @param orientation
+     * @param direction
+     * @return a quarter of an hour or a row
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.HORIZONTAL ? PIXELS_PER_HOUR / 4 : ROW_HEIGHT;
+    }
+
+    /**
+     *
+     * @param visibleRect
+     * @param orientation
+     * @param direction
+     * @return
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.HORIZONTAL
+                ? Math.max(PIXELS_PER_HOUR, visibleRect.width - PIXELS_PER_HOUR)
+                : Math.max(ROW_HEIGHT, visibleRect.height - ROW_HEIGHT);
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Names of the stations beside their rows.
+     */
+    private class RowHeader extends JComponent {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(HEADER_WIDTH, stations.length * ROW_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g2.setColor(cellBackground);
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+            if (desktopHints != null) {
+                g2.addRenderingHints(desktopHints);
+            }
+            FontMetrics metrics = g2.getFontMetrics(titleFont);
+            g2.setFont(titleFont);
+            int first = Math.max(0, clip.y / ROW_HEIGHT);
+            int last = Math.min(stations.length - 1, (clip.y + clip.height - 1) / ROW_HEIGHT);
+            Shape oldClip = g2.getClip();
+            g2.clipRect(0, clip.y, getWidth() - GAP, clip.height);
+            for (int row = first; row <= last; row++) {
+                int y = row * ROW_HEIGHT;
+                g2.setColor(foreground);
+                g2.drawString(stations[row].props.getProperty(Station.PROP_STATION_NAME, ""), GAP,
+                        y + (ROW_HEIGHT - metrics.getHeight()) / 2 + metrics.getAscent());
+                g2.setColor(gridColor);
+                g2.drawLine(0, y + ROW_HEIGHT - 1, getWidth(), y + ROW_HEIGHT - 1);
+            }
+            g2.setClip(oldClip);
+        }
+    }
+
+    /**
+     * Hours of the grid, with the day at midnight.
+     */
+    private class TimeHeader extends JComponent {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(getWidthOfGrid(), HEADER_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g2.setColor(cellBackground);
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+            if (desktopHints != null) {
+                g2.addRenderingHints(desktopHints);
+            }
+            FontMetrics metrics = g2.getFontMetrics(labelFont);
+            int baseline = (HEADER_HEIGHT - metrics.getHeight()) / 2 + metrics.getAscent();
+            // labels reaching into the clip from the left are painted too
+            long from = toSeconds(clip.x) - 3600;
+            long to = toSeconds(clip.x + clip.width) + 1;
+            for (long hour = origin + Math.max(0, (from - origin) / 3600) * 3600; hour < to; hour += 3600) {
+                int x = toX(hour);
+                ZonedDateTime time = Instant.ofEpochSecond(hour).atZone(zone);
+                boolean midnight = time.getHour() == 0;
+                g2.setColor(gridColor);
+                g2.drawLine(x, midnight ? 0 : HEADER_HEIGHT / 2, x, HEADER_HEIGHT);
+                g2.setFont(midnight ? titleFont : labelFont);
+                g2.setColor(foreground);
+                g2.drawString(midnight ? DAY_FORMAT.format(time) : HOUR_FORMAT.format(time), x + GAP, baseline);
+            }
+            int now = toX(System.currentTimeMillis() / 1000);
+            g2.setColor(NOW_COLOR);
+            g2.fillRect(now - 1, HEADER_HEIGHT - 4, 3, 4);
+        }
+    }
+
+}
@@ -15,123 +15,54 @@
  */
 package cz.marelis.radiorec;
 
-import java.awt.Color;
-import java.awt.Component;
-import java.awt.Font;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import javax.swing.JLabel;
-import javax.swing.JProgressBar;
-import javax.swing.JTable;
-import javax.swing.UIManager;
-import javax.swing.table.TableCellRenderer;
-
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class ProgramTableCellRenderer implements TableCellRenderer {
-
-    private final transient RadioRec radioRec = RadioRec.getInstance();
-        
-    private final ProgramTableCell panel;
+public class ProgramTableCellRenderer extends PaintedCellRenderer {
 
-    private final Font regularFont;
-    private final Font solidFont;
+    private static final long serialVersionUID = 1L;
 
     /**
      *
      */
     public ProgramTableCellRenderer() {
-        this.panel = new ProgramTableCell();
-        this.regularFont = radioRec.fontAwesomeRegular.deriveFont(Font.PLAIN, 14f);
-        this.solidFont = radioRec.fontAwesomeSolid.deriveFont(Font.PLAIN, 14f);
     }
 
     /**
      *
-     * @param table
      * @param value
-     * @param isSelected
-     * @param hasFocus
-     * @param row
-     * @param column
-     * @return
      */
     @Override
-    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
-            int row, int column) {
-
-        if (isSelected) {
-            panel.setBackground(table.getSelectionBackground());
-            panel.setForeground(table.getSelectionForeground());
-        } else {
-            panel.setBackground(table.getBackground());
-            panel.setForeground(table.getForeground());
-        }
-
+    protected void setValue(Object value) {
         Program program = (Program) value;
+        CellText text = program.getCellText(radioRec.getTimeZone());
         int status = program.getStatus();
-        int progress = program.getProgress();
-        Color defaultLabelForeground = UIManager.getDefaults().getColor("Label.foreground");
-        ZoneId zone = ZoneId.of(RadioRec.getInstance().prefs.get(RadioRec.PROP_TIME_ZONE_ID, RadioRec.DEFAULT_TIME_ZONE_ID));
-        ZonedDateTime start = program.getTimeProperty(Program.PROP_TIME_START);
-        ZonedDateTime finish = program.getTimeProperty(Program.PROP_TIME_FINISH);
-        String distance = switch (status) {
-            case Program.STATUS_PREVIOUS -> "before";
-            case Program.STATUS_CURRENT -> String.format("run %d %%", progress);
-            case Program.STATUS_FUTURE -> "will be";
-            default -> "?";
-        };
-
-        JLabel label;
-        JProgressBar bar;
 
-        label = panel.getTimeLabel();
-        label.setText(DateTimeFormatter.ofPattern("HH:mm:ss").format(start.withZoneSameInstant(zone)));
-
-        label = panel.getStatusLabel();
-        bar = panel.getProgressBar();
+        time = text.time;
+        duration = text.duration;
+        title = text.title;
+        comment = text.comment;
+        progress = -1;
 
         switch (status) {
             case Program.STATUS_PREVIOUS -> {
-                label.setForeground(defaultLabelForeground);
-                label.setFont(regularFont);
-                label.setText("\uf058");
-                bar.setVisible(false);
+                glyphColor = null;
+                glyph = "\uf058";
             }
             case Program.STATUS_CURRENT -> {
-                label.setForeground(new Color(0, 204, 153));
-                label.setFont(regularFont);
-                label.setText("\uf144");
-                bar.setVisible(true);
-                bar.setValue(progress);
+                glyphColor = TIME_COLOR;
+                glyph = "\uf144";
+                progress = program.getProgress();
             }
             case Program.STATUS_FUTURE -> {
-                label.setForeground(defaultLabelForeground);
-                label.setFont(regularFont);
-                label.setText("\uf017");
-                bar.setVisible(false);
+                glyphColor = null;
+                glyph = "\uf017";
             }
             default -> {
-                    label.setText("");
-                    bar.setVisible(false);
+                glyph = null;
             }
         }
-
-        label = panel.getDurationLabel();
-        label.setText(String.format("%d min.", start.until(finish, ChronoUnit.MINUTES)));
-
-        label = panel.getTitleLabel();
-        label.setText(program.props.getProperty(Program.PROP_TITLE));
-
-        label = panel.getCommentLabel();
-        String text = program.props.getProperty(Program.PROP_COMMENT);
-        label.setText(text.isEmpty() ? " " : text);
-
-        return panel;
     }
 
 }
@@ -15,13 +15,11 @@
  */
 package cz.marelis.radiorec;
 
-import javax.swing.table.AbstractTableModel;
-
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class ProgramTableModel extends AbstractTableModel {
+public class ProgramTableModel extends ResponseTableModel<Program> {
 
     /**
      *
@@ -34,15 +32,6 @@ public class ProgramTableModel extends AbstractTableModel {
     public ProgramTableModel() {
     }
     
-    /**
-     *
-     * @return
-     */
-    @Override
-    public int getRowCount() {
-        return programDirector != null ? programDirector.itemsCount() : 0;
-    }
-
     /**
      *
      * @return
@@ -52,17 +41,6 @@ public class ProgramTableModel extends AbstractTableModel {
         return 1;
     }
 
-    /**
-     *
-     * @param rowIndex
-     * @param columnIndex
-     * @return
-     */
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        return programDirector != null ? programDirector.getItem(rowIndex) : null;
-    }
-
     /**
      *
      * @param rowIndex
@@ -108,7 +86,7 @@ public class ProgramTableModel extends AbstractTableModel {
      */
     public void setProgramDirector(ProgramDirector programDirector) {
         this.programDirector = programDirector;
-        this.fireTableDataChanged();
+        setList(programDirector);
     }
     
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Programs of a station in columns of primitive arrays sorted by start, times
+ * in epoch seconds. The running maximum of the finish times finds the first
+ * program overlapping a time by binary search too, so range queries take
+ * O(log n) plus the programs found. The index is immutable, a change of the
+ * programs creates a new one.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ProgramTimeIndex {
+
+    /**
+     *
+     */
+    public final static ProgramTimeIndex EMPTY = new ProgramTimeIndex(new Program[0], new long[0], new long[0], 0);
+
+    /**
+     * Receives a program together with its times from the index.
+     */
+    public interface ProgramConsumer {
+
+        /**
+         *
+         * @param program
+         * @param start epoch seconds
+         * @param finish epoch seconds
+         */
+        void accept(Program program, long start, long finish);
+    }
+
+    private final Program[] programs;
+
+    private final long[] starts;
+
+    private final long[] finishes;
+
+    // maximal finish of the programs up to the index
+    private final long[] maxFinishes;
+
+    // items of the list the index was built from, programs without valid times included
+    private final int sourceCount;
+
+    private ProgramTimeIndex(Program[] programs, long[] starts, long[] finishes, int sourceCount) {
+        this.programs = programs;
+        this.starts = starts;
+        this.finishes = finishes;
+        this.maxFinishes = new long[finishes.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < finishes.length; i++) {
+            max = Math.max(max, finishes[i]);
+            maxFinishes[i] = max;
+        }
+        this.sourceCount = sourceCount;
+    }
+
+    private static long[] getSeconds(Program program) {
+        try {
+            return new long[]{
+                program.getTimeMillis(Program.PROP_TIME_START) / 1000,
+                program.getTimeMillis(Program.PROP_TIME_FINISH) / 1000};
+        } catch (RuntimeException ex) {
+            // incomplete times
+            return null;
+        }
+    }
+
+    /**
+     *
+     * @param list
+     * @return
+     */
+    public static ProgramTimeIndex build(Collection<Program> list) {
+        List<Program> valid = new ArrayList<>(list.size());
+        List<long[]> times = new ArrayList<>(list.size());
+        for (Program program : list) {
+            long[] seconds = getSeconds(program);
+            if (seconds != null) {
+                valid.add(program);
+                times.add(seconds);
+            }
+        }
+        Integer[] order = new Integer[valid.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> times.get(i)[0]).thenComparingLong(i -> times.get(i)[1]));
+        Program[] programs = new Program[order.length];
+        long[] starts = new long[order.length];
+        long[] finishes = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            programs[i] = valid.get(order[i]);
+            starts[i] = times.get(order[i])[0];
+            finishes[i] = times.get(order[i])[1];
+        }
+        return new ProgramTimeIndex(programs, starts, finishes, list.size());
+    }
+
+    /**
+     * Appends programs added to the end of the list.
+     *
+     * @param added
+     * @param count number of items in the list after the addition
+     * @return new index, or null when the programs start before the last one
+     * and the index has to be built again
+     */
+    public ProgramTimeIndex append(Collection<Program> added, int count) {
+        if (sourceCount + added.size() != count) {
+            return null;
+        }
+        int size = programs.length;
+        Program[] newPrograms = Arrays.copyOf(programs, size + added.size());
+        long[] newStarts = Arrays.copyOf(starts, size + added.size());
+        long[] newFinishes = Arrays.copyOf(finishes, size + added.size());
+        for (Program program : added) {
+            long[] seconds = getSeconds(program);
+            if (seconds == null) {
+                continue;
+            }
+            if (size > 0 && (seconds[0] < newStarts[size - 1]
+                    || seconds[0] == newStarts[size - 1] && seconds[1] < newFinishes[size - 1])) {
+                return null;
+            }
+            newPrograms[size] = program;
+            newStarts[size] = seconds[0];
+            newFinishes[size] = seconds[1];
+            size++;
+        }
+        return new ProgramTimeIndex(Arrays.copyOf(newPrograms, size), Arrays.copyOf(newStarts, size),
+                Arrays.copyOf(newFinishes, size), count);
+    }
+
+    /**
+     *
+     * @return number of programs with valid times
+     */
+    public int size() {
+        return programs.length;
+    }
+
+    // first index whose value is not less than the key
+    private static int lowerBound(long[] values, long key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     *
+     * @param from epoch seconds
+     * @param to epoch seconds
+     * @return programs overlapping [from, to) in the order of start
+     */
+    public List<Program> getOverlapping(long from, long to) {
+        List<Program> list = new ArrayList<>();
+        forEachOverlapping(from, to, (program, start, finish) -> list.add(program));
+        return list;
+    }
+
+    /**
+     * Goes through the programs overlapping [from, to) without reading their
+     * times again.
+     *
+     * @param from epoch seconds
+     * @param to epoch seconds
+     * @param action called in the order of start
+     */
+    public void forEachOverlapping(long from, long to, ProgramConsumer action) {
+        int hi = lowerBound(starts, to);
+        for (int i = lowerBound(maxFinishes, from + 1); i < hi; i++) {
+            if (finishes[i] > from) {
+                action.accept(programs[i], starts[i], finishes[i]);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param time epoch seconds
+     * @return the program running at the time started last, or null
+     */
+    public Program getProgramAt(long time) {
+        int lo = lowerBound(maxFinishes, time + 1);
+        for (int i = lowerBound(starts, time + 1) - 1; i >= lo; i--) {
+            if (finishes[i] > time) {
+                return programs[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @param time epoch seconds
+     * @return the first program starting after the time, or null
+     */
+    public Program getNextProgram(long time) {
+        int idx = lowerBound(starts, time + 1);
+        return idx < programs.length ? programs[idx] : null;
+    }
+
+}
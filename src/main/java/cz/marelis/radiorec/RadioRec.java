@@ -28,13 +28,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,7 +52,7 @@ import javax.swing.UnsupportedLookAndFeelException;
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class RadioRec implements AppActivityListener, AppTickerListener {
+public class RadioRec implements AppActivityListener {
 
     // TODO: Stations folder for saved station
 
@@ -85,6 +86,11 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public final static String PROP_RECORDS_TIME_APPEND = "records-time-append";
 
+    /**
+     *
+     */
+    public final static String PROP_RECORDS_BANDWIDTH_BUDGET = "records-bandwidth-budget";
+
     /**
      *
      */
@@ -205,6 +211,21 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public final static String PROP_UI_MAINFORM_LAST_LEFT = "ui-mainform-last-left";
 
+    /**
+     * Milliseconds between refreshes of the tables.
+     */
+    public final static String PROP_UI_MAINFORM_REFRESH_INTERVAL = "ui-mainform-refresh-interval";
+
+    /**
+     * Milliseconds between refreshes of the dashboard.
+     */
+    public final static String PROP_UI_DASHBOARD_REFRESH_INTERVAL = "ui-dashboard-refresh-interval";
+
+    /**
+     * Most upcoming records shown on the dashboard.
+     */
+    public final static String PROP_UI_DASHBOARD_UPCOMING = "ui-dashboard-upcoming";
+
     /**
      *
      */
@@ -255,6 +276,11 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public final static String PROP_NULL = "null";
 
+    /**
+     * Command line argument printing the capacity plan of the recordings
+     */
+    public final static String ARG_PLAN = "--plan";
+
     /**
      *
      */
@@ -321,6 +347,11 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public final static String DEFAULT_RECORDS_TIME_APPEND = "00m00s";
 
+    /**
+     *
+     */
+    public final static String DEFAULT_RECORDS_BANDWIDTH_BUDGET = "0";
+
     /**
      *
      */
@@ -366,6 +397,21 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      *
      */
     public final static int DEFAULT_UI_MAINFORM_RECORD_TABLE_ROW_HEIGHT = 70;
+
+    /**
+     *
+     */
+    public final static int DEFAULT_UI_MAINFORM_REFRESH_INTERVAL = 250;
+
+    /**
+     *
+     */
+    public final static int DEFAULT_UI_DASHBOARD_REFRESH_INTERVAL = 1000;
+
+    /**
+     *
+     */
+    public final static int DEFAULT_UI_DASHBOARD_UPCOMING = 20;
     
     /**
      *
@@ -418,13 +464,35 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public Font fontAwesomeSolid;
 
+    private volatile ZoneId timeZone;
+
     /**
      *
      */
     public final StationDirector stationDirector = new StationDirector();
 
+    /**
+     *
+     */
+    public final RecordAdmission recordAdmission = new RecordAdmission();
+
+    /**
+     *
+     */
+    public final MirrorHealth mirrorHealth = new MirrorHealth();
+
+    /**
+     *
+     */
+    public final RecordIndex recordIndex = new RecordIndex();
+
+    /**
+     *
+     */
+    public final ActiveRecordIndex activeRecords = new ActiveRecordIndex();
+
     private AppActivity appActivity;
-    private AppTicker appTicker;
+    private AppScheduler appScheduler;
 
     private final ArrayList<Image> frameIcons = new ArrayList<>();
 
@@ -438,6 +506,8 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
     }
 
     private RadioRec() {
+        stationDirector.addResponseListener(recordIndex);
+        stationDirector.addResponseListener(activeRecords);
     }
 
     // singleton
@@ -499,6 +569,7 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
         setPrefs(PROP_RECORDS_SUBFOLDERS_FORMAT, DEFAULT_RECORDS_SUBFOLDERS_FORMAT);
         setPrefs(PROP_RECORDS_FILENAME_FORMAT, DEFAULT_RECORDS_FILENAME_FORMAT);
         setPrefs(PROP_RECORDS_TIME_APPEND, DEFAULT_RECORDS_TIME_APPEND);
+        setPrefs(PROP_RECORDS_BANDWIDTH_BUDGET, DEFAULT_RECORDS_BANDWIDTH_BUDGET);
         setPrefs(PROP_TEMP_DIR, DEFAULT_TEMP_DIR);
         setPrefs(PROP_UI_THEME, DEFAULT_UI_THEME);
         setPrefs(PROP_UI_SIZE, DEFAULT_UI_SIZE);
@@ -507,6 +578,9 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
         setPrefs(PROP_UI_MAINFORM_STATIONS_TABLE_ROW_HEIGHT, String.valueOf(DEFAULT_UI_MAINFORM_STATIONS_TABLE_ROW_HEIGHT));
         setPrefs(PROP_UI_MAINFORM_PROGRAM_TABLE_ROW_HEIGHT, String.valueOf(DEFAULT_UI_MAINFORM_PROGRAM_TABLE_ROW_HEIGHT));
         setPrefs(PROP_UI_MAINFORM_RECORD_TABLE_ROW_HEIGHT, String.valueOf(DEFAULT_UI_MAINFORM_RECORD_TABLE_ROW_HEIGHT));
+        setPrefs(PROP_UI_MAINFORM_REFRESH_INTERVAL, String.valueOf(DEFAULT_UI_MAINFORM_REFRESH_INTERVAL));
+        setPrefs(PROP_UI_DASHBOARD_REFRESH_INTERVAL, String.valueOf(DEFAULT_UI_DASHBOARD_REFRESH_INTERVAL));
+        setPrefs(PROP_UI_DASHBOARD_UPCOMING, String.valueOf(DEFAULT_UI_DASHBOARD_UPCOMING));
         setPrefs(PROP_TIME_ZONE_ID, DEFAULT_TIME_ZONE_ID);
         setPrefs(PROP_TIME_FORMAT, DEFAULT_TIME_FORMAT);
         setPrefs(PROP_WEB_BROWSER_PATH, ProgramDirector.getBrowserPath());
@@ -563,13 +637,21 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      *
      */
     public void initStations() {
+        initStations(false);
+    }
+
+    /**
+     *
+     * @param readOnly the files of the stations are not written
+     */
+    public void initStations(boolean readOnly) {
         try {
             String[] keys = RadioRec.getInstance().prefs.node("stations").keys();
             for (String key : keys) {
                 String filePath = RadioRec.getInstance().prefs.node("stations").get(key, "");
                 File file = new File(filePath);
                 if (file.exists()) {
-                    Station station = new Station(file);
+                    Station station = new Station(file, readOnly);
                     stationDirector.addItem(station);
                 }
             }
@@ -583,10 +665,19 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      * @param args
      */
     public void initArgs(String args[]) {
+        initArgs(args, false);
+    }
+
+    /**
+     *
+     * @param args
+     * @param readOnly the files of the stations are not written
+     */
+    public void initArgs(String args[], boolean readOnly) {
         for (String arg : args) {
             File file = new File(arg);
             if (file.exists()) {
-                Station station = new Station(file);
+                Station station = new Station(file, readOnly);
                 if (!stationDirector.containsItem(station)) {
                     stationDirector.addItem(station);
                 }
@@ -700,9 +791,10 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
     /**
      *
      */
-    public void initTicker() {
-        appTicker = new AppTicker(1, TimeUnit.SECONDS);
-        appTicker.addAppTickerListener(RadioRec.this);
+    public void initScheduler() {
+        appScheduler = new AppScheduler();
+        stationDirector.forEach(appScheduler::addStation);
+        stationDirector.addResponseListener(appScheduler);
     }
 
     /**
@@ -745,6 +837,21 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
         }
     }
 
+    /**
+     *
+     * @return time zone of the user interface, parsed again only after a
+     * change of the preference
+     */
+    public ZoneId getTimeZone() {
+        String id = prefs.get(PROP_TIME_ZONE_ID, DEFAULT_TIME_ZONE_ID);
+        ZoneId zone = timeZone;
+        if (zone == null || !zone.getId().equals(id)) {
+            zone = ZoneId.of(id);
+            timeZone = zone;
+        }
+        return zone;
+    }
+
     /**
      *
      */
@@ -781,7 +888,8 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
     public void shutdown() {
         System.out.println("RadioRec.shutdown");
         savePrefs();
-        appTicker.removeAppTickerListener(RadioRec.this);
+        stationDirector.removeResponseListener(appScheduler);
+        appScheduler.shutdown();
         appActivity.removeAppActivityListener(getInstance());
         appActivity.shutdown();
         doneFlag.set(true);
@@ -792,6 +900,21 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     public static void main(String args[]) {
 
+        if (Arrays.asList(args).contains(ARG_PLAN)) {
+            /* Print the capacity plan without the user interface */
+            RadioRec radioRec = RadioRec.getInstance();
+            radioRec.initLocales();
+            radioRec.initPrefs();
+            radioRec.initLocale();
+            // loaded read only, no save may be cut off by the exit
+            radioRec.initStations(true);
+            radioRec.initArgs(args, true);
+            ZoneId zone = ZoneId.of(radioRec.prefs.get(PROP_TIME_ZONE_ID, DEFAULT_TIME_ZONE_ID));
+            System.out.print(new CapacityPlanner(zone, radioRec.recordAdmission)
+                    .plan(radioRec.stationDirector, ZonedDateTime.now(zone)).getReport());
+            System.exit(0);
+        }
+
         EventQueue.invokeLater(() -> {
             /* Start the application */
             RadioRec radioRec = RadioRec.getInstance();
@@ -805,7 +928,7 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
             radioRec.initIcons();
             radioRec.initLocale();
             radioRec.initLook();
-            radioRec.initTicker();
+            radioRec.initScheduler();
             radioRec.initMain();
         });
 
@@ -831,27 +954,18 @@ public class RadioRec implements AppActivityListener, AppTickerListener {
      */
     @Override
     public void appActivityArgsDelivered(AppActivity activity, String[] args) {
-        for (String arg : args) {
-            File file = new File(arg);
-            if (file.exists()) {
-                Station station = new Station(file);
-                if (!stationDirector.containsItem(station)) {
-                    stationDirector.addItem(station);
+        // delivered on the activity thread
+        ResponseList.invokeLater(() -> {
+            for (String arg : args) {
+                File file = new File(arg);
+                if (file.exists()) {
+                    Station station = new Station(file);
+                    if (!stationDirector.containsItem(station)) {
+                        stationDirector.addItem(station);
+                    }
                 }
             }
-        }
-    }
-
-    /**
-     *
-     * @param ticker
-     * @param time
-     */
-    @Override
-    public void appTickerTick(AppTicker ticker, ZonedDateTime time) {
-        if (stationDirector != null) {
-            stationDirector.update(time);
-        }
+        });
     }
 
 }
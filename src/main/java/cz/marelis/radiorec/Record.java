@@ -22,6 +22,9 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.prefs.Preferences;
 
 /**
  *
@@ -120,11 +123,27 @@ public class Record extends ResponseNode
      */
     public final static String PROP_URL = "url";
 
+    /**
+     * Further stream links separated by white space, tried when the main
+     * link fails
+     */
+    public final static String PROP_URL_MIRRORS = "url-mirrors";
+
     /**
      *
      */
     public final static String PROP_ENCODER = "encoder";
 
+    /**
+     *
+     */
+    public final static String PROP_PRIORITY = "priority";
+
+    /**
+     *
+     */
+    public final static String PROP_BITRATE = "bitrate";
+
     /**
      *
      */
@@ -165,12 +184,53 @@ public class Record extends ResponseNode
      */
     public final static int RECORD_DONE = 6;
 
-    RecordTask recordWorker;
+    /**
+     *
+     */
+    public final static int RECORD_DEFERRED = 7;
+
+    /**
+     *
+     */
+    public final static int RECORD_REFUSED = 8;
+
+    /**
+     * The window passed before the record could be started, e.g. while the
+     * computer was suspended.
+     */
+    public final static int RECORD_MISSED = 9;
+
+    private final static Duration DEFERRED_INTERVAL = Duration.ofSeconds(5);
+
+    private final static DateTimeFormatter TIME_APPEND_FORMATTER = DateTimeFormatter.ofPattern("mm'm'ss's'").withZone(ZoneId.of("UTC"));
+
+    private static volatile Duration timeAppend;
+
+    private static boolean timeAppendListening;
+
+    volatile RecordTask recordWorker;
+
+    // properties kept in slots
+    private final static NodeProps.Schema SCHEMA = new NodeProps.Schema(
+            new String[]{PROP_FILE_DIR, PROP_FILE_NAME, PROP_TIME_START, PROP_TIME_FINISH,
+                PROP_TRACK, PROP_ARTIST, PROP_TITLE, PROP_ALBUM, PROP_YEAR, PROP_GENRE,
+                PROP_COMMENT, PROP_LYRICS, PROP_COMPOSER, PROP_PUBLISHER, PROP_ORIGINAL_ARTIST,
+                PROP_ALBUM_ARTIST, PROP_COPYRIGHT, PROP_URL, PROP_URL_MIRRORS, PROP_ENCODER,
+                PROP_PRIORITY, PROP_BITRATE, RecordRule.PROP_RULE_ID},
+            PROP_TIME_START, PROP_TIME_FINISH);
+
+    private volatile CellText cellText;
+
+    // stats of the last recording, written only by its worker
+    private volatile long recordingStarted;
+    private volatile long bytesRecorded;
+    private volatile long gapsRecorded;
 
     /**
      *
      */
     public Record() {
+        super(SCHEMA);
         props.setProperty(PROP_FILE_DIR, "");
         props.setProperty(PROP_FILE_NAME, "");
         props.setProperty(PROP_TIME_START, "");
@@ -189,19 +249,71 @@ public class Record extends ResponseNode
         props.setProperty(PROP_ALBUM_ARTIST, "");
         props.setProperty(PROP_COPYRIGHT, "");
         props.setProperty(PROP_URL, "");
+        props.setProperty(PROP_URL_MIRRORS, "");
         props.setProperty(PROP_ENCODER, "");
+        props.setProperty(PROP_PRIORITY, "0");
+        props.setProperty(PROP_BITRATE, "");
+    }
+
+    /**
+     *
+     * @return
+     */
+    public int getPriority() {
+        try {
+            return Integer.parseInt(props.getProperty(PROP_PRIORITY, "0").trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     *
+     * @return kbit/s, zero when unknown
+     */
+    public int getBitrate() {
+        try {
+            return Integer.parseInt(props.getProperty(PROP_BITRATE, "").trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     *
+     * @return main link followed by the mirrors
+     */
+    public List<String> getUrls() {
+        ArrayList<String> result = new ArrayList<>();
+        String url = props.getProperty(PROP_URL, "").trim();
+        if (!url.isEmpty()) {
+            result.add(url);
+        }
+        for (String mirror : props.getProperty(PROP_URL_MIRRORS, "").trim().split("\\s+")) {
+            if (!mirror.isEmpty() && !result.contains(mirror)) {
+                result.add(mirror);
+            }
+        }
+        return result;
     }
 
     /**
      *
      */
     public void startRecording() {
+        // the stats of an earlier recording were counted when it ended
+        bytesRecorded = 0;
+        gapsRecorded = 0;
+        recordingStarted = System.currentTimeMillis();
         setStatus(Record.RECORD_STARTUP);
         recordWorker = createRecordTask();
         recordWorker.execute();
     }
 
     protected RecordTask createRecordTask() {
+        if (HlsRecordWorker.isHlsLink(props.getProperty(PROP_URL, ""))) {
+            return new HlsRecordWorker(this);
+        }
         return new RecordWorker(this);
     }
 
@@ -247,6 +359,34 @@ public class Record extends ResponseNode
                 .replace("{finish}", DateTimeFormatter.ofPattern("HHmmss").format(finish.withZoneSameInstant(zone)));
     }
 
+    /**
+     *
+     * @return time recorded after the finish of every record
+     */
+    public static Duration getTimeAppend() {
+        Duration append = timeAppend;
+        if (append == null) {
+            Preferences prefs = RadioRec.getInstance().prefs;
+            synchronized (Record.class) {
+                if (!timeAppendListening) {
+                    // the parsed value is kept until the setting changes
+                    prefs.addPreferenceChangeListener(evt -> {
+                        if (RadioRec.PROP_RECORDS_TIME_APPEND.equals(evt.getKey())) {
+                            timeAppend = null;
+                        }
+                    });
+                    timeAppendListening = true;
+                }
+            }
+            TemporalAccessor ta = TIME_APPEND_FORMATTER
+                    .parse(prefs.get(RadioRec.PROP_RECORDS_TIME_APPEND, RadioRec.DEFAULT_RECORDS_TIME_APPEND));
+            append = Duration.of(ta.get(ChronoField.MINUTE_OF_HOUR), ChronoUnit.MINUTES)
+                    .plus(ta.get(ChronoField.SECOND_OF_MINUTE), ChronoUnit.SECONDS);
+            timeAppend = append;
+        }
+        return append;
+    }
+
     /**
      *
      * @param time
@@ -254,29 +394,32 @@ public class Record extends ResponseNode
     @Override
     public void update(ZonedDateTime time) {
        
-        TemporalAccessor ta = DateTimeFormatter.ofPattern("mm'm'ss's'").withZone(ZoneId.of("UTC"))
-                .parse(RadioRec.getInstance().prefs.get(RadioRec.PROP_RECORDS_TIME_APPEND, RadioRec.DEFAULT_RECORDS_TIME_APPEND));
-        ZonedDateTime start = getTimeProperty(Record.PROP_TIME_START);
-        ZonedDateTime finish = getTimeProperty(Record.PROP_TIME_FINISH)
-                .plus(ta.get(ChronoField.MINUTE_OF_HOUR), ChronoUnit.MINUTES)
-                .plus(ta.get(ChronoField.SECOND_OF_MINUTE), ChronoUnit.SECONDS);
+        long now = time.toInstant().toEpochMilli();
+        long start = getTimeMillis(Record.PROP_TIME_START);
+        long finish = getTimeMillis(Record.PROP_TIME_FINISH) + getTimeAppend().toMillis();
         
-        if (isStatus(RECORD_PENDING)) {
-            if (time.isAfter(finish)) {
-                setRemove(true);
-            } else if (time.isAfter(start) && time.isBefore(finish)) {
-                startRecording();
+        if (isStatus(RECORD_PENDING) || isStatus(RECORD_DEFERRED)) {
+            RecordAdmission admission = RadioRec.getInstance().recordAdmission;
+            if (now > finish) {
+                if (isStatus(RECORD_DEFERRED)) {
+                    admission.release(this);
+                    setStatus(RECORD_REFUSED);
+                } else {
+                    System.out.println("Record missed: " + props.getProperty(Record.PROP_TITLE));
+                    setStatus(RECORD_MISSED);
+                }
+            } else if (now > start && now < finish) {
+                if (admission.admit(this)) {
+                    startRecording();
+                } else {
+                    setStatus(RECORD_DEFERRED);
+                }
             }
         } else if (isStatus(RECORD_RUNNING)) {
-            if (time.isAfter(finish)) {
+            if (now > finish) {
                 finishRecording();
             } else {
-                double one = (Duration.between(start, finish).toSeconds() / 100.0);
-                if (one > 0) {
-                    Duration dur = Duration.between(start, time);
-                    int newProgress = (int) (dur.toSeconds() / one);
-                    setProgress(newProgress);
-                }
+                setProgress(getProgress(start, finish, now));
             }
         } else if (isStatus(RECORD_DONE)) {
             setRemove(true);
@@ -285,27 +428,107 @@ public class Record extends ResponseNode
 
     /**
      *
-     * @param o
+     * @param time
      * @return
      */
     @Override
-    public int compareTo(Record o) {
-        ZonedDateTime start1 = getTimeProperty(Record.PROP_TIME_START);
-        ZonedDateTime finish1 = getTimeProperty(Record.PROP_TIME_FINISH);
-        ZonedDateTime start2 = o.getTimeProperty(Record.PROP_TIME_START);
-        ZonedDateTime finish2 = o.getTimeProperty(Record.PROP_TIME_FINISH);
-        if (start1.isAfter(start2)) {
-            return 1;
-        }
-        if (start1.isEqual(start2)) {
-            if (finish1.isAfter(finish2)) {
-                return 1;
+    public ZonedDateTime getNextUpdate(ZonedDateTime time) {
+        long now = time.toInstant().toEpochMilli();
+        long start = getTimeMillis(Record.PROP_TIME_START);
+        long finish = getTimeMillis(Record.PROP_TIME_FINISH) + getTimeAppend().toMillis();
+        switch (getStatus()) {
+            case RECORD_PENDING -> {
+                return now <= start ? toTime(start + 1) : time;
+            }
+            case RECORD_DEFERRED -> {
+                // the admission is asked again until the window passes
+                return toTime(Math.min(now + DEFERRED_INTERVAL.toMillis(), finish + 1));
+            }
+            case RECORD_RUNNING -> {
+                long next = getNextProgressTime(start, finish, now);
+                return toTime(next < finish ? next : finish + 1);
+            }
+            case RECORD_DONE -> {
+                return time;
             }
-            if (finish1.isEqual(finish2)) {
-                return 0;
+            default -> {
+                return null;
             }
         }
-        return -1;
+    }
+
+    /**
+     *
+     * @param zone
+     * @return display strings for the table cell
+     */
+    public CellText getCellText(ZoneId zone) {
+        CellText text = CellText.of(this, zone, cellText);
+        cellText = text;
+        return text;
+    }
+
+    /**
+     *
+     * @param status record status
+     * @return true when a record with the status writes its file
+     */
+    public static boolean isActiveStatus(int status) {
+        return status == RECORD_STARTUP || status == RECORD_RUNNING || status == RECORD_STOPPING;
+    }
+
+    /**
+     *
+     * @return start of the last recording in epoch milliseconds, or 0
+     */
+    public long getRecordingStarted() {
+        return recordingStarted;
+    }
+
+    /**
+     *
+     * @return bytes written to the file of the record
+     */
+    public long getBytesRecorded() {
+        return bytesRecorded;
+    }
+
+    /**
+     *
+     * @param bytes bytes written by the worker
+     */
+    void addBytesRecorded(long bytes) {
+        bytesRecorded += bytes;
+    }
+
+    /**
+     *
+     * @return breaks in the recorded stream, reconnections or missed segments
+     */
+    public long getGapsRecorded() {
+        return gapsRecorded;
+    }
+
+    /**
+     *
+     * @param gaps breaks found by the worker
+     */
+    void addGapsRecorded(long gaps) {
+        gapsRecorded += gaps;
+    }
+
+    /**
+     *
+     * @param o
+     * @return
+     */
+    @Override
+    public int compareTo(Record o) {
+        int cmp = Long.compare(getTimeMillis(Record.PROP_TIME_START), o.getTimeMillis(Record.PROP_TIME_START));
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Long.compare(getTimeMillis(Record.PROP_TIME_FINISH), o.getTimeMillis(Record.PROP_TIME_FINISH));
     }
 
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission control of concurrent recordings against the configured
+ * bandwidth budget. Every running recording reserves its bitrate, taken from
+ * the record itself, from the last known rate of its stream, or a default
+ * estimate. Waiting records are admitted by priority, a record of a lower
+ * priority starts only in the budget left to the preceding ones that fit.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RecordAdmission {
+
+    /**
+     *
+     */
+    public final static int DEFAULT_BITRATE = 128;
+
+    // a waiting record not asking again within this time is forgotten
+    private final static long WAITING_TIMEOUT = 10_000;
+
+    private final Map<Record, Integer> active = new IdentityHashMap<>();
+    private final Map<Record, Long> waiting = new IdentityHashMap<>();
+    private final Map<String, Integer> knownRates = new HashMap<>();
+
+    /**
+     *
+     * @return budget in kbit/s, zero or less means unlimited
+     */
+    public int getBudget() {
+        String value = RadioRec.getInstance().prefs.get(RadioRec.PROP_RECORDS_BANDWIDTH_BUDGET,
+                RadioRec.DEFAULT_RECORDS_BANDWIDTH_BUDGET);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     *
+     * @param record
+     * @return true when the record may start recording now
+     */
+    public synchronized boolean admit(Record record) {
+        long now = System.currentTimeMillis();
+        waiting.values().removeIf(last -> now - last > WAITING_TIMEOUT);
+        int rate = getBitrate(record);
+        int budget = getBudget();
+        if (budget <= 0) {
+            waiting.remove(record);
+            active.put(record, rate);
+            return true;
+        }
+        // waiting records of a higher priority go first, as far as they fit
+        int priority = record.getPriority();
+        int free = budget - getUsed();
+        List<Record> preceding = new ArrayList<>();
+        for (Record other : waiting.keySet()) {
+            if (other != record && other.getPriority() > priority) {
+                preceding.add(other);
+            }
+        }
+        preceding.sort(Comparator.comparingInt(Record::getPriority).reversed());
+        for (Record other : preceding) {
+            int otherRate = getBitrate(other);
+            if (otherRate <= free) {
+                free -= otherRate;
+            }
+        }
+        if (rate <= free) {
+            waiting.remove(record);
+            active.put(record, rate);
+            return true;
+        }
+        waiting.put(record, now);
+        return false;
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void release(Record record) {
+        active.remove(record);
+        waiting.remove(record);
+    }
+
+    /**
+     * Updates the rate of a running recording from icy-br or from the
+     * measured throughput.
+     *
+     * @param record
+     * @param rate kbit/s
+     */
+    public synchronized void updateBitrate(Record record, int rate) {
+        if (rate <= 0) {
+            return;
+        }
+        knownRates.put(record.props.getProperty(Record.PROP_URL), rate);
+        if (active.containsKey(record)) {
+            active.put(record, rate);
+        }
+    }
+
+    /**
+     *
+     * @param record
+     * @return kbit/s
+     */
+    public synchronized int getBitrate(Record record) {
+        int rate = record.getBitrate();
+        if (rate > 0) {
+            return rate;
+        }
+        return knownRates.getOrDefault(record.props.getProperty(Record.PROP_URL), DEFAULT_BITRATE);
+    }
+
+    /**
+     *
+     * @return kbit/s reserved by running recordings
+     */
+    public synchronized int getUsed() {
+        return active.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public synchronized int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+}
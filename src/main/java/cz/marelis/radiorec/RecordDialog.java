@@ -32,6 +32,9 @@ public class RecordDialog extends javax.swing.JDialog {
     private final Record record;
 
     private final ZoneId zone;
+
+    private final static String[] REPEATS = {RecordRule.REPEAT_NONE, RecordRule.REPEAT_DAILY,
+        RecordRule.REPEAT_WEEKDAYS, RecordRule.REPEAT_WEEKLY, RecordRule.REPEAT_CUSTOM};
     
     /**
      *
@@ -60,16 +63,58 @@ public class RecordDialog extends javax.swing.JDialog {
         fileNameTextField.setText(record.props.getProperty(Record.PROP_FILE_NAME));
         titleTextField.setText(record.props.getProperty(Record.PROP_TITLE));
         commentTextField.setText(record.props.getProperty(Record.PROP_COMMENT));
+        priorityTextField.setText(String.valueOf(record.getPriority()));
         ZonedDateTime start = record.getTimeProperty(Record.PROP_TIME_START).withZoneSameInstant(zone);
         startDateTimePicker.setDateTimePermissive(start.toLocalDateTime());
         ZonedDateTime finish = record.getTimeProperty(Record.PROP_TIME_FINISH).withZoneSameInstant(zone);
         finishDateTimePicker.setDateTimePermissive(finish.toLocalDateTime());
+        RadioRec radioRec = RadioRec.getInstance();
+        repeatComboBox.addItem(radioRec.currentBundle.getString("ComboBox.Item.Repeat.None"));
+        repeatComboBox.addItem(radioRec.currentBundle.getString("ComboBox.Item.Repeat.Daily"));
+        repeatComboBox.addItem(radioRec.currentBundle.getString("ComboBox.Item.Repeat.Weekdays"));
+        repeatComboBox.addItem(radioRec.currentBundle.getString("ComboBox.Item.Repeat.Weekly"));
+        repeatComboBox.addItem(radioRec.currentBundle.getString("ComboBox.Item.Repeat.Custom"));
+        repeatComboBox.setSelectedIndex(0);
+        repeatComboBox.addActionListener(e -> repeatDaysTextField.setEnabled(getRepeat().equals(RecordRule.REPEAT_CUSTOM)));
+        repeatDaysTextField.setEnabled(false);
+    }
+
+    /**
+     * Repeating is offered for new records only.
+     *
+     * @param enabled
+     */
+    public void setRepeatEnabled(boolean enabled) {
+        repeatComboBox.setEnabled(enabled);
+        repeatDaysTextField.setEnabled(enabled && getRepeat().equals(RecordRule.REPEAT_CUSTOM));
+    }
+
+    /**
+     *
+     * @return one of the RecordRule.REPEAT_* values
+     */
+    public String getRepeat() {
+        int idx = repeatComboBox.getSelectedIndex();
+        return idx >= 0 ? REPEATS[idx] : RecordRule.REPEAT_NONE;
+    }
+
+    /**
+     *
+     * @return days of week of the custom repeat
+     */
+    public String getRepeatDays() {
+        return repeatDaysTextField.getText();
     }
 
     private void getDialog() {
         record.props.setProperty(Record.PROP_FILE_NAME, fileNameTextField.getText());
         record.props.setProperty(Record.PROP_TITLE, titleTextField.getText());
         record.props.setProperty(Record.PROP_COMMENT, commentTextField.getText());
+        try {
+            record.props.setProperty(Record.PROP_PRIORITY, String.valueOf(Integer.parseInt(priorityTextField.getText().trim())));
+        } catch (NumberFormatException ex) {
+            // the priority is kept
+        }
         record.setTimeProperty(Record.PROP_TIME_START, startDateTimePicker.getDateTimePermissive().atZone(zone));
         record.setTimeProperty(Record.PROP_TIME_FINISH, finishDateTimePicker.getDateTimePermissive().atZone(zone));
     }
@@ -97,6 +142,12 @@ public class RecordDialog extends javax.swing.JDialog {
         startDateTimePicker = new com.github.lgooddatepicker.components.DateTimePicker();
         jLabel4 = new javax.swing.JLabel();
         finishDateTimePicker = new com.github.lgooddatepicker.components.DateTimePicker();
+        jLabel5 = new javax.swing.JLabel();
+        repeatComboBox = new javax.swing.JComboBox<>();
+        jLabel7 = new javax.swing.JLabel();
+        repeatDaysTextField = new javax.swing.JTextField();
+        jLabel8 = new javax.swing.JLabel();
+        priorityTextField = new javax.swing.JTextField();
 
         java.util.ResourceBundle bundle = java.util.ResourceBundle.getBundle("cz/marelis/radiorec/Bundle"); // NOI18N
         setTitle(bundle.getString("RecordDialog.title")); // NOI18N
@@ -148,6 +199,12 @@ public class RecordDialog extends javax.swing.JDialog {
 
         jLabel4.setText(bundle.getString("RecordDialog.jLabel4.text")); // NOI18N
 
+        jLabel5.setText(bundle.getString("RecordDialog.jLabel5.text")); // NOI18N
+
+        jLabel7.setText(bundle.getString("RecordDialog.jLabel7.text")); // NOI18N
+
+        jLabel8.setText(bundle.getString("RecordDialog.jLabel8.text")); // NOI18N
+
         javax.swing.GroupLayout contentPanelLayout = new javax.swing.GroupLayout(contentPanel);
         contentPanel.setLayout(contentPanelLayout);
         contentPanelLayout.setHorizontalGroup(
@@ -158,6 +215,8 @@ public class RecordDialog extends javax.swing.JDialog {
                     .addComponent(titleTextField)
                     .addComponent(commentTextField)
                     .addComponent(fileNameTextField)
+                    .addComponent(repeatDaysTextField)
+                    .addComponent(priorityTextField)
                     .addGroup(contentPanelLayout.createSequentialGroup()
                         .addGroup(contentPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(jLabel1)
@@ -166,7 +225,11 @@ public class RecordDialog extends javax.swing.JDialog {
                             .addComponent(jLabel6)
                             .addComponent(startDateTimePicker, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                             .addComponent(jLabel4)
-                            .addComponent(finishDateTimePicker, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                            .addComponent(finishDateTimePicker, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(jLabel5)
+                            .addComponent(repeatComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(jLabel7)
+                            .addComponent(jLabel8))
                         .addGap(0, 0, Short.MAX_VALUE)))
                 .addContainerGap())
         );
@@ -193,6 +256,18 @@ public class RecordDialog extends javax.swing.JDialog {
                 .addComponent(jLabel4)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(finishDateTimePicker, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jLabel5)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(repeatComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jLabel7)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(repeatDaysTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jLabel8)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(priorityTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap(17, Short.MAX_VALUE))
         );
 
@@ -239,8 +314,14 @@ public class RecordDialog extends javax.swing.JDialog {
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel4;
+    private javax.swing.JLabel jLabel5;
     private javax.swing.JLabel jLabel6;
+    private javax.swing.JLabel jLabel7;
+    private javax.swing.JLabel jLabel8;
     private javax.swing.JButton okButton;
+    private javax.swing.JTextField priorityTextField;
+    private javax.swing.JComboBox<String> repeatComboBox;
+    private javax.swing.JTextField repeatDaysTextField;
     private com.github.lgooddatepicker.components.DateTimePicker startDateTimePicker;
     private javax.swing.JTextField titleTextField;
     // End of variables declaration//GEN-END:variables
@@ -15,30 +15,10 @@
  */
 package cz.marelis.radiorec;
 
-import java.time.ZonedDateTime;
-import java.util.ArrayList;
-
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
 public class RecordDirector extends ResponseList<Record> {
 
-    /**
-     *
-     * @param time
-     */
-    @Override
-    public void update(ZonedDateTime time) {
-        ArrayList<Record> list = new ArrayList<>();
-        for (Record record : this) {
-            if (record.isRemove()) {
-                list.add(record);
-            } else {
-                record.update(time);
-            }
-        }
-        removeItems(list);
-    }
-
 }
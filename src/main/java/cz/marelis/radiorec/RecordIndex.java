@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records of all stations indexed by their stream link and time. The index
+ * follows the item events of the station director, every record is kept in
+ * an interval tree of its link by [start, finish).
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RecordIndex implements ResponseListener {
+
+    private final Map<String, IntervalTree<Record>> trees = new HashMap<>();
+    // link under which the record is indexed, the props may change since
+    private final Map<Record, String> links = new IdentityHashMap<>();
+
+    /**
+     *
+     * @param station
+     */
+    public synchronized void addStation(Station station) {
+        station.recordDirector.forEach(this::add);
+    }
+
+    /**
+     *
+     * @param station
+     */
+    public synchronized void removeStation(Station station) {
+        station.recordDirector.forEach(this::remove);
+    }
+
+    /**
+     * Indexes the record again with its current link and times.
+     *
+     * @param record
+     */
+    public synchronized void add(Record record) {
+        remove(record);
+        long start, finish;
+        try {
+            start = record.getTimeMillis(Record.PROP_TIME_START);
+            finish = record.getTimeMillis(Record.PROP_TIME_FINISH);
+        } catch (RuntimeException ex) {
+            // incomplete times
+            return;
+        }
+        String link = getLink(record);
+        trees.computeIfAbsent(link, key -> new IntervalTree<>()).insert(start, finish, record);
+        links.put(record, link);
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void remove(Record record) {
+        String link = links.remove(record);
+        if (link != null) {
+            IntervalTree<Record> tree = trees.get(link);
+            tree.remove(record);
+            if (tree.isEmpty()) {
+                trees.remove(link);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return number of indexed records
+     */
+    public synchronized int size() {
+        return links.size();
+    }
+
+    private static String getLink(Record record) {
+        return record.props.getProperty(Record.PROP_URL, "");
+    }
+
+    /**
+     *
+     * @param link
+     * @param start epoch milliseconds
+     * @param finish epoch milliseconds
+     * @return records of the link overlapping [start, finish)
+     */
+    public synchronized List<Record> getOverlapping(String link, long start, long finish) {
+        List<Record> list = new ArrayList<>();
+        IntervalTree<Record> tree = trees.get(link);
+        if (tree != null) {
+            tree.forEachOverlapping(start, finish, list::add);
+        }
+        return list;
+    }
+
+    /**
+     *
+     * @param link
+     * @param start epoch milliseconds
+     * @param finish epoch milliseconds
+     * @return record of the link with the same times, or null
+     */
+    public synchronized Record findDuplicate(String link, long start, long finish) {
+        for (Record record : getOverlapping(link, start, finish)) {
+            if (record.getTimeMillis(Record.PROP_TIME_START) == start
+                    && record.getTimeMillis(Record.PROP_TIME_FINISH) == finish) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @param link
+     * @param start epoch milliseconds
+     * @param finish epoch milliseconds
+     * @return true when a record of the link takes the whole [start, finish)
+     */
+    public synchronized boolean covers(String link, long start, long finish) {
+        IntervalTree<Record> tree = trees.get(link);
+        if (tree == null) {
+            return false;
+        }
+        boolean[] found = new boolean[1];
+        tree.forEachOverlapping(start, finish, record -> {
+            if (record.getTimeMillis(Record.PROP_TIME_START) <= start
+                    && record.getTimeMillis(Record.PROP_TIME_FINISH) >= finish) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     *
+     * @param time epoch milliseconds
+     * @return records of all links whose time contains the time
+     */
+    public synchronized List<Record> getRecordsAt(long time) {
+        List<Record> list = new ArrayList<>();
+        trees.values().forEach(tree -> tree.forEachAt(time, list::add));
+        return list;
+    }
+
+    /**
+     * Extends the pending record by the time of the other one, so the same
+     * stream is not recorded twice.
+     *
+     * @param into
+     * @param other
+     */
+    public static void merge(Record into, Record other) {
+        if (other.getTimeMillis(Record.PROP_TIME_START) < into.getTimeMillis(Record.PROP_TIME_START)) {
+            into.props.setProperty(Record.PROP_TIME_START, other.props.getProperty(Record.PROP_TIME_START));
+        }
+        if (other.getTimeMillis(Record.PROP_TIME_FINISH) > into.getTimeMillis(Record.PROP_TIME_FINISH)) {
+            into.props.setProperty(Record.PROP_TIME_FINISH, other.props.getProperty(Record.PROP_TIME_FINISH));
+        }
+        String title = into.props.getProperty(Record.PROP_TITLE, "");
+        String otherTitle = other.props.getProperty(Record.PROP_TITLE, "");
+        if (!otherTitle.isEmpty() && !title.contains(otherTitle)) {
+            into.props.setProperty(Record.PROP_TITLE, title.isEmpty() ? otherTitle : title + " + " + otherTitle);
+        }
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    public void onResponseEvent(ResponseEvent re) {
+        Object source = re.getSource();
+        if (source instanceof StationDirector) {
+            switch (re.getId()) {
+                case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                    ResponseList.forEachItem(re.getObject(), item -> addStation((Station) item));
+                case ResponseList.EVT_ITEM_REMOVED ->
+                    ResponseList.forEachItem(re.getObject(), item -> removeStation((Station) item));
+                case ResponseList.EVT_ITEMS_BATCH -> {
+                    ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                    changes.getRemoved().forEach(item -> removeStation((Station) item));
+                    changes.getInserted().forEach(item -> addStation((Station) item));
+                    changes.getUpdated().forEach(item -> addStation((Station) item));
+                }
+                default -> {
+                }
+            }
+        } else if (source instanceof RecordDirector) {
+            switch (re.getId()) {
+                case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                    ResponseList.forEachItem(re.getObject(), item -> add((Record) item));
+                case ResponseList.EVT_ITEM_REMOVED ->
+                    ResponseList.forEachItem(re.getObject(), item -> remove((Record) item));
+                case ResponseList.EVT_ITEMS_BATCH -> {
+                    ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                    changes.getRemoved().forEach(item -> remove((Record) item));
+                    changes.getInserted().forEach(item -> add((Record) item));
+                    changes.getUpdated().forEach(item -> add((Record) item));
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Recurring recording. The first occurrence is given by the start and finish
+ * time, the following ones repeat the same local time in the time zone of
+ * the rule. Records are created only for occurrences within the horizon,
+ * the scheduler keeps the rule until its next occurrence gets near.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RecordRule extends ResponseNode
+        implements Comparable<RecordRule> {
+
+    /**
+     * Identifies the rule, also set on the records created by the rule
+     */
+    public final static String PROP_RULE_ID = "rule-id";
+
+    /**
+     *
+     */
+    public final static String PROP_RULE_REPEAT = "rule-repeat";
+
+    /**
+     * Days of week of the custom repeat separated by white space, e.g. "MON
+     * WED FRI"
+     */
+    public final static String PROP_RULE_DAYS = "rule-days";
+
+    /**
+     *
+     */
+    public final static String PROP_RULE_TIME_ZONE_ID = "rule-time-zone-id";
+
+    /**
+     * Time after which no occurrence starts, empty for no end
+     */
+    public final static String PROP_RULE_UNTIL = "rule-until";
+
+    /**
+     * Starts of occurrences removed by the user separated by white space
+     */
+    public final static String PROP_RULE_SKIP = "rule-skip";
+
+    /**
+     *
+     */
+    public final static String PROP_TIME_START = Record.PROP_TIME_START;
+
+    /**
+     *
+     */
+    public final static String PROP_TIME_FINISH = Record.PROP_TIME_FINISH;
+
+    /**
+     *
+     */
+    public final static String PROP_TITLE = Record.PROP_TITLE;
+
+    /**
+     *
+     */
+    public final static String PROP_COMMENT = Record.PROP_COMMENT;
+
+    /**
+     *
+     */
+    public final static String PROP_PRIORITY = Record.PROP_PRIORITY;
+
+    /**
+     *
+     */
+    public final static String REPEAT_NONE = "none";
+
+    /**
+     *
+     */
+    public final static String REPEAT_DAILY = "daily";
+
+    /**
+     *
+     */
+    public final static String REPEAT_WEEKDAYS = "weekdays";
+
+    /**
+     *
+     */
+    public final static String REPEAT_WEEKLY = "weekly";
+
+    /**
+     *
+     */
+    public final static String REPEAT_CUSTOM = "custom";
+
+    /**
+     * Records were created, the event object is the list of them
+     */
+    public final static int EVT_RULE_EXPANDED = 4;
+
+    /**
+     * Occurrences starting within this time from now are created as records
+     */
+    public final static Duration EXPAND_HORIZON = Duration.ofHours(24);
+
+    // days searched for the next occurrence, a week plus skipped occurrences
+    private final static int SEARCH_DAYS = 366;
+
+    private final static DateTimeFormatter SKIP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneId.of("UTC"));
+
+    // start of the next occurrence not yet created, in epoch milliseconds
+    private volatile long expanded = Long.MIN_VALUE;
+
+    // properties kept in slots
+    private final static NodeProps.Schema SCHEMA = new NodeProps.Schema(
+            new String[]{PROP_RULE_ID, PROP_RULE_REPEAT, PROP_RULE_DAYS, PROP_RULE_TIME_ZONE_ID,
+                PROP_RULE_UNTIL, PROP_RULE_SKIP, PROP_TIME_START, PROP_TIME_FINISH, PROP_TITLE,
+                PROP_COMMENT, PROP_PRIORITY},
+            PROP_RULE_UNTIL, PROP_TIME_START, PROP_TIME_FINISH);
+
+    /**
+     *
+     */
+    public RecordRule() {
+        super(SCHEMA);
+        props.setProperty(PROP_RULE_ID, UUID.randomUUID().toString());
+        props.setProperty(PROP_RULE_REPEAT, REPEAT_WEEKLY);
+        props.setProperty(PROP_RULE_DAYS, "");
+        props.setProperty(PROP_RULE_TIME_ZONE_ID, RadioRec.DEFAULT_TIME_ZONE_ID);
+        props.setProperty(PROP_RULE_UNTIL, "");
+        props.setProperty(PROP_RULE_SKIP, "");
+        props.setProperty(PROP_TIME_START, "");
+        props.setProperty(PROP_TIME_FINISH, "");
+        props.setProperty(PROP_TITLE, "");
+        props.setProperty(PROP_COMMENT, "");
+        props.setProperty(PROP_PRIORITY, "0");
+    }
+
+    /**
+     * Rule repeating the times of the record.
+     *
+     * @param record
+     * @param repeat
+     * @param days days of week of the custom repeat
+     * @param zone
+     * @return
+     */
+    public static RecordRule fromRecord(Record record, String repeat, String days, ZoneId zone) {
+        RecordRule rule = new RecordRule();
+        rule.props.setProperty(PROP_RULE_REPEAT, repeat);
+        rule.props.setProperty(PROP_RULE_DAYS, days.trim().toUpperCase(Locale.ROOT));
+        rule.props.setProperty(PROP_RULE_TIME_ZONE_ID, zone.getId());
+        rule.props.setProperty(PROP_TIME_START, record.props.getProperty(Record.PROP_TIME_START));
+        rule.props.setProperty(PROP_TIME_FINISH, record.props.getProperty(Record.PROP_TIME_FINISH));
+        rule.props.setProperty(PROP_TITLE, record.props.getProperty(Record.PROP_TITLE));
+        rule.props.setProperty(PROP_COMMENT, record.props.getProperty(Record.PROP_COMMENT));
+        rule.props.setProperty(PROP_PRIORITY, record.props.getProperty(Record.PROP_PRIORITY, "0"));
+        return rule;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String getRuleId() {
+        return props.getProperty(PROP_RULE_ID);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Set<DayOfWeek> getDays() {
+        String repeat = props.getProperty(PROP_RULE_REPEAT, REPEAT_NONE);
+        switch (repeat) {
+            case REPEAT_DAILY -> {
+                return EnumSet.allOf(DayOfWeek.class);
+            }
+            case REPEAT_WEEKDAYS -> {
+                return EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+            }
+            case REPEAT_WEEKLY -> {
+                return EnumSet.of(getTimeProperty(PROP_TIME_START).withZoneSameInstant(getZone()).getDayOfWeek());
+            }
+            case REPEAT_CUSTOM -> {
+                EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                for (String day : props.getProperty(PROP_RULE_DAYS, "").trim().split("\\s+")) {
+                    for (DayOfWeek dow : DayOfWeek.values()) {
+                        if (!day.isEmpty() && dow.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(day)) {
+                            days.add(dow);
+                        }
+                    }
+                }
+                return days;
+            }
+            default -> {
+                return EnumSet.noneOf(DayOfWeek.class);
+            }
+        }
+    }
+
+    private ZoneId getZone() {
+        return ZoneId.of(props.getProperty(PROP_RULE_TIME_ZONE_ID, RadioRec.DEFAULT_TIME_ZONE_ID));
+    }
+
+    private boolean isSkipped(ZonedDateTime start) {
+        String skip = props.getProperty(PROP_RULE_SKIP, "");
+        return !skip.isEmpty() && skip.contains(SKIP_FORMAT.format(start));
+    }
+
+    /**
+     * The occurrence is not created again.
+     *
+     * @param start
+     */
+    public void skipOccurrence(ZonedDateTime start) {
+        StringBuilder sb = new StringBuilder();
+        long now = System.currentTimeMillis();
+        // skipped occurrences which already passed are forgotten
+        for (String item : props.getProperty(PROP_RULE_SKIP, "").trim().split("\\s+")) {
+            if (!item.isEmpty() && ZonedDateTime.parse(item, SKIP_FORMAT).toInstant().toEpochMilli() > now) {
+                sb.append(item).append(' ');
+            }
+        }
+        sb.append(SKIP_FORMAT.format(start));
+        props.setProperty(PROP_RULE_SKIP, sb.toString());
+    }
+
+    /**
+     *
+     * @param time
+     * @param after only occurrences starting at or after this epoch
+     * millisecond are returned
+     * @return start of the first occurrence not finished at the time, or null
+     */
+    public ZonedDateTime getNextOccurrence(ZonedDateTime time, long after) {
+        Set<DayOfWeek> days = getDays();
+        if (days.isEmpty()) {
+            return null;
+        }
+        ZoneId zone = getZone();
+        ZonedDateTime first = getTimeProperty(PROP_TIME_START).withZoneSameInstant(zone);
+        Duration duration = Duration.ofMillis(getTimeMillis(PROP_TIME_FINISH) - getTimeMillis(PROP_TIME_START));
+        String until = props.getProperty(PROP_RULE_UNTIL, "");
+        long last = until.isEmpty() ? Long.MAX_VALUE : getTimeMillis(PROP_RULE_UNTIL);
+        LocalTime localTime = first.toLocalTime();
+        long now = time.toInstant().toEpochMilli();
+        // an occurrence of the previous day may still run
+        ZonedDateTime from = time.minus(duration).withZoneSameInstant(zone);
+        if (after > from.toInstant().toEpochMilli()) {
+            from = toTime(after).withZoneSameInstant(zone);
+        }
+        LocalDate date = from.toLocalDate().minusDays(1);
+        if (date.isBefore(first.toLocalDate())) {
+            date = first.toLocalDate();
+        }
+        for (int i = 0; i < SEARCH_DAYS; i++, date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            ZonedDateTime start = date.atTime(localTime).atZone(zone);
+            long millis = start.toInstant().toEpochMilli();
+            if (millis > last) {
+                return null;
+            }
+            if (millis < after || millis + duration.toMillis() <= now || isSkipped(start)) {
+                continue;
+            }
+            return start;
+        }
+        return null;
+    }
+
+    /**
+     * Occurrences are created again, e.g. after the rule was edited.
+     */
+    public void resetExpansion() {
+        expanded = Long.MIN_VALUE;
+    }
+
+    private Record createRecord(ZonedDateTime start) {
+        Duration duration = Duration.ofMillis(getTimeMillis(PROP_TIME_FINISH) - getTimeMillis(PROP_TIME_START));
+        Record record = new Record();
+        record.props.setProperty(PROP_RULE_ID, getRuleId());
+        record.props.setProperty(Record.PROP_TITLE, props.getProperty(PROP_TITLE));
+        record.props.setProperty(Record.PROP_COMMENT, props.getProperty(PROP_COMMENT));
+        record.props.setProperty(Record.PROP_PRIORITY, props.getProperty(PROP_PRIORITY, "0"));
+        record.setTimeProperty(Record.PROP_TIME_START, start);
+        record.setTimeProperty(Record.PROP_TIME_FINISH, start.plus(duration));
+        return record;
+    }
+
+    /**
+     * Records of the occurrences starting before the end of the window,
+     * whether created already or not. The expansion is not changed.
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public List<Record> getRecords(ZonedDateTime from, ZonedDateTime to) {
+        long last = to.toInstant().toEpochMilli();
+        List<Record> records = new ArrayList<>();
+        ZonedDateTime next = getNextOccurrence(from, Long.MIN_VALUE);
+        while (next != null && next.toInstant().toEpochMilli() < last) {
+            records.add(createRecord(next));
+            next = getNextOccurrence(from, next.toInstant().toEpochMilli() + 1);
+        }
+        return records;
+    }
+
+    /**
+     *
+     * @param time
+     */
+    @Override
+    public void update(ZonedDateTime time) {
+        long horizon = time.plus(EXPAND_HORIZON).toInstant().toEpochMilli();
+        List<Record> records = new ArrayList<>();
+        ZonedDateTime next = getNextOccurrence(time, expanded);
+        while (next != null && next.toInstant().toEpochMilli() < horizon) {
+            records.add(createRecord(next));
+            expanded = next.toInstant().toEpochMilli() + 1;
+            next = getNextOccurrence(time, expanded);
+        }
+        if (!records.isEmpty()) {
+            fireResponseEvent(new ResponseEvent(this, EVT_RULE_EXPANDED, records, "RecordRule.update"));
+        }
+        if (next == null && !getDays().isEmpty()) {
+            // no further occurrence before the end of the rule
+            setRemove(true);
+        }
+    }
+
+    /**
+     *
+     * @param time
+     * @return
+     */
+    @Override
+    public ZonedDateTime getNextUpdate(ZonedDateTime time) {
+        if (getDays().isEmpty()) {
+            return null;
+        }
+        ZonedDateTime next = getNextOccurrence(time, expanded);
+        if (next == null) {
+            return time;
+        }
+        ZonedDateTime due = next.minus(EXPAND_HORIZON);
+        return due.isAfter(time) ? due : time;
+    }
+
+    /**
+     *
+     * @param o
+     * @return
+     */
+    @Override
+    public int compareTo(RecordRule o) {
+        return Long.compare(getTimeMillis(PROP_TIME_START), o.getTimeMillis(PROP_TIME_START));
+    }
+
+}
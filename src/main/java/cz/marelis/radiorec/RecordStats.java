@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Live counters of the records of a station. They are kept up to date from
+ * the item events of the record director and the status events of the
+ * records, so reading them does not go through the records.
+ *
+ * The status of a record is read again on each of its events, the counters
+ * follow the status even when the events come from several threads.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RecordStats implements ResponseListener {
+
+    private final static long NO_START = Long.MIN_VALUE;
+
+    private static class Entry {
+
+        int status;
+        long start = NO_START;
+    }
+
+    private final Map<Record, Entry> entries = new IdentityHashMap<>();
+
+    private final int[] counts = new int[Record.RECORD_MISSED + 1];
+
+    // start times of the pending records, with their counts
+    private final TreeMap<Long, Integer> pendingStarts = new TreeMap<>();
+
+    // records writing their files, their bytes are added when they end
+    private final Set<Record> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private long bytesFinished;
+
+    private long bytesDay;
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void add(Record record) {
+        Entry entry = entries.get(record);
+        if (entry != null) {
+            // changed, e.g. its times
+            update(record, entry);
+        } else {
+            entry = new Entry();
+            entries.put(record, entry);
+            enter(record, entry);
+        }
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void remove(Record record) {
+        Entry entry = entries.remove(record);
+        if (entry != null) {
+            leave(entry);
+            if (active.remove(record)) {
+                finish(record);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param record
+     */
+    public synchronized void statusChanged(Record record) {
+        Entry entry = entries.get(record);
+        if (entry != null && entry.status != record.getStatus()) {
+            update(record, entry);
+        }
+    }
+
+    private void update(Record record, Entry entry) {
+        boolean wasActive = Record.isActiveStatus(entry.status);
+        leave(entry);
+        enter(record, entry);
+        if (wasActive && !Record.isActiveStatus(entry.status)) {
+            active.remove(record);
+            finish(record);
+        }
+    }
+
+    private void enter(Record record, Entry entry) {
+        entry.status = record.getStatus();
+        if (entry.status >= 0 && entry.status < counts.length) {
+            counts[entry.status]++;
+        }
+        if (entry.status == Record.RECORD_PENDING) {
+            try {
+                entry.start = record.getTimeMillis(Record.PROP_TIME_START);
+                pendingStarts.merge(entry.start, 1, Integer::sum);
+            } catch (RuntimeException ex) {
+                // incomplete times
+                entry.start = NO_START;
+            }
+        }
+        if (Record.isActiveStatus(entry.status)) {
+            active.add(record);
+        }
+    }
+
+    private void leave(Entry entry) {
+        if (entry.status >= 0 && entry.status < counts.length) {
+            counts[entry.status]--;
+        }
+        if (entry.start != NO_START) {
+            pendingStarts.computeIfPresent(entry.start, (start, count) -> count > 1 ? count - 1 : null);
+            entry.start = NO_START;
+        }
+    }
+
+    private void finish(Record record) {
+        rollDay();
+        bytesFinished += record.getBytesRecorded();
+    }
+
+    private void rollDay() {
+        long day = LocalDate.now(RadioRec.getInstance().getTimeZone()).toEpochDay();
+        if (day != bytesDay) {
+            bytesDay = day;
+            bytesFinished = 0;
+        }
+    }
+
+    /**
+     *
+     * @param status record status
+     * @return number of records with the status
+     */
+    public synchronized int getCount(int status) {
+        return status >= 0 && status < counts.length ? counts[status] : 0;
+    }
+
+    /**
+     *
+     * @return number of records
+     */
+    public synchronized int getTotal() {
+        return entries.size();
+    }
+
+    /**
+     *
+     * @return start of the earliest pending record in epoch milliseconds,
+     * or -1 when none is pending
+     */
+    public synchronized long getNextStart() {
+        return pendingStarts.isEmpty() ? -1 : pendingStarts.firstKey();
+    }
+
+    /**
+     *
+     * @return bytes written today by the records finished today and by the
+     * active ones
+     */
+    public synchronized long getBytesToday() {
+        rollDay();
+        long bytes = bytesFinished;
+        for (Record record : active) {
+            bytes += record.getBytesRecorded();
+        }
+        return bytes;
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    public void onResponseEvent(ResponseEvent re) {
+        Object source = re.getSource();
+        if (source instanceof RecordDirector) {
+            switch (re.getId()) {
+                case ResponseList.EVT_ITEM_ADDED, ResponseList.EVT_ITEM_CHANGED ->
+                    ResponseList.forEachItem(re.getObject(), item -> add((Record) item));
+                case ResponseList.EVT_ITEM_REMOVED ->
+                    ResponseList.forEachItem(re.getObject(), item -> remove((Record) item));
+                case ResponseList.EVT_ITEMS_BATCH -> {
+                    ItemChanges<?> changes = (ItemChanges<?>) re.getObject();
+                    changes.getRemoved().forEach(item -> remove((Record) item));
+                    changes.getInserted().forEach(item -> add((Record) item));
+                    changes.getUpdated().forEach(item -> add((Record) item));
+                }
+                default -> {
+                }
+            }
+        } else if (source instanceof Record record && re.getId() == ResponseNode.EVT_STATUS_CHANGED) {
+            statusChanged(record);
+        }
+    }
+
+}
@@ -1,206 +0,0 @@
-/*
- * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package cz.marelis.radiorec;
-
-import javax.swing.JLabel;
-import javax.swing.JProgressBar;
-
-/**
- *
- * @author Marek Liška <adlatus@marelis.cz>
- */
-public class RecordTableCell extends javax.swing.JPanel {
-
-    private static final long serialVersionUID = 1L;
-
-    /**
-     * Creates new form ProgramCell
-     */
-    public RecordTableCell() {
-        initComponents();
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JLabel getTimeLabel() {
-        return timeLabel;
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JLabel getStatusLabel() {
-        return statusLabel;
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JProgressBar getProgressBar() {
-        return progressBar;
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JLabel getDurationLabel() {
-        return durationLabel;
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JLabel getTitleLabel() {
-        return titleLabel;
-    }
-
-    /**
-     *
-     * @return
-     */
-    public JLabel getCommentLabel() {
-        return commentLabel;
-    }
-
-    /**
-     * This method is called from within the constructor to initialize the form.
-     * WARNING: Do NOT modify this code. The content of this method is always
-     * regenerated by the Form Editor.
-     */
-    @SuppressWarnings("unchecked")
-    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
-    private void initComponents() {
-        java.awt.GridBagConstraints gridBagConstraints;
-
-        timeLabel = new javax.swing.JLabel();
-        statusLabel = new javax.swing.JLabel();
-        progressBar = new javax.swing.JProgressBar();
-        durationLabel = new javax.swing.JLabel();
-        titleLabel = new javax.swing.JLabel();
-        commentLabel = new javax.swing.JLabel();
-        filler1 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
-        filler2 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
-        filler4 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 4), new java.awt.Dimension(0, 4), new java.awt.Dimension(32767, 4));
-        filler5 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 4), new java.awt.Dimension(0, 4), new java.awt.Dimension(32767, 4));
-        filler3 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
-        filler6 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
-        filler7 = new javax.swing.Box.Filler(new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 0), new java.awt.Dimension(8, 32767));
-
-        setLayout(new java.awt.GridBagLayout());
-
-        timeLabel.setForeground(new java.awt.Color(0, 204, 153));
-        timeLabel.setText("time");
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 1;
-        gridBagConstraints.gridy = 0;
-        gridBagConstraints.anchor = java.awt.GridBagConstraints.LINE_START;
-        add(timeLabel, gridBagConstraints);
-
-        statusLabel.setText("status");
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 3;
-        gridBagConstraints.gridy = 0;
-        add(statusLabel, gridBagConstraints);
-
-        progressBar.setMinimumSize(new java.awt.Dimension(80, 4));
-        progressBar.setPreferredSize(new java.awt.Dimension(80, 4));
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 5;
-        gridBagConstraints.gridy = 0;
-        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
-        gridBagConstraints.weightx = 0.1;
-        add(progressBar, gridBagConstraints);
-
-        durationLabel.setText("duration");
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 7;
-        gridBagConstraints.gridy = 0;
-        gridBagConstraints.anchor = java.awt.GridBagConstraints.LINE_END;
-        add(durationLabel, gridBagConstraints);
-
-        titleLabel.setFont(new java.awt.Font("Segoe UI", 1, 12)); // NOI18N
-        titleLabel.setText("title");
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 1;
-        gridBagConstraints.gridy = 2;
-        gridBagConstraints.gridwidth = 7;
-        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
-        gridBagConstraints.anchor = java.awt.GridBagConstraints.LINE_START;
-        gridBagConstraints.weightx = 0.1;
-        add(titleLabel, gridBagConstraints);
-
-        commentLabel.setFont(new java.awt.Font("Segoe UI", 2, 12)); // NOI18N
-        commentLabel.setText("comment");
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 1;
-        gridBagConstraints.gridy = 4;
-        gridBagConstraints.gridwidth = 7;
-        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
-        gridBagConstraints.anchor = java.awt.GridBagConstraints.LINE_START;
-        add(commentLabel, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 0;
-        gridBagConstraints.gridy = 0;
-        add(filler1, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 8;
-        gridBagConstraints.gridy = 0;
-        add(filler2, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 1;
-        gridBagConstraints.gridy = 3;
-        add(filler4, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 1;
-        gridBagConstraints.gridy = 1;
-        add(filler5, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 2;
-        gridBagConstraints.gridy = 0;
-        add(filler3, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 4;
-        gridBagConstraints.gridy = 0;
-        add(filler6, gridBagConstraints);
-        gridBagConstraints = new java.awt.GridBagConstraints();
-        gridBagConstraints.gridx = 6;
-        gridBagConstraints.gridy = 0;
-        add(filler7, gridBagConstraints);
-    }// </editor-fold>//GEN-END:initComponents
-
-
-    // Variables declaration - do not modify//GEN-BEGIN:variables
-    private javax.swing.JLabel commentLabel;
-    private javax.swing.JLabel durationLabel;
-    private javax.swing.Box.Filler filler1;
-    private javax.swing.Box.Filler filler2;
-    private javax.swing.Box.Filler filler3;
-    private javax.swing.Box.Filler filler4;
-    private javax.swing.Box.Filler filler5;
-    private javax.swing.Box.Filler filler6;
-    private javax.swing.Box.Filler filler7;
-    private javax.swing.JProgressBar progressBar;
-    private javax.swing.JLabel statusLabel;
-    private javax.swing.JLabel timeLabel;
-    private javax.swing.JLabel titleLabel;
-    // End of variables declaration//GEN-END:variables
-}
@@ -16,132 +16,96 @@
 package cz.marelis.radiorec;
 
 import java.awt.Color;
-import java.awt.Component;
-import java.awt.Font;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import javax.swing.JLabel;
-import javax.swing.JProgressBar;
-import javax.swing.JTable;
-import javax.swing.UIManager;
-import javax.swing.table.TableCellRenderer;
 
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class RecordTableCellRenderer implements TableCellRenderer {
+public class RecordTableCellRenderer extends PaintedCellRenderer {
 
-    private final transient RadioRec radioRec = RadioRec.getInstance();
-    
-    private final RecordTableCell panel;
-    private final Font regularFont;
-    private final Font solidFont;
+    private static final long serialVersionUID = 1L;
+
+    private final static Color RED = new Color(255, 51, 51);
+    private final static Color ORANGE = new Color(255, 153, 0);
 
     /**
      *
      */
     public RecordTableCellRenderer() {
-        this.panel = new RecordTableCell();
-        this.regularFont = radioRec.fontAwesomeRegular.deriveFont(Font.PLAIN, 14f);
-        this.solidFont = radioRec.fontAwesomeSolid.deriveFont(Font.PLAIN, 14f);
     }
 
     /**
      *
-     * @param table
      * @param value
-     * @param isSelected
-     * @param hasFocus
-     * @param row
-     * @param column
-     * @return
      */
     @Override
-    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-
-        if (isSelected) {
-            panel.setBackground(table.getSelectionBackground());
-            panel.setForeground(table.getSelectionForeground());
-        } else {
-            panel.setBackground(table.getBackground());
-            panel.setForeground(table.getForeground());
-        }
-
+    protected void setValue(Object value) {
         Record record = (Record) value;
+        CellText text = record.getCellText(radioRec.getTimeZone());
         int status = record.getStatus();
-        int progress = record.getProgress();
-        Color defaultLabelForeground = UIManager.getDefaults().getColor("Label.foreground");
-        ZoneId zone = ZoneId.of(radioRec.prefs.get(RadioRec.PROP_TIME_ZONE_ID, RadioRec.DEFAULT_TIME_ZONE_ID));
-        ZonedDateTime start = record.getTimeProperty(Program.PROP_TIME_START);
-        ZonedDateTime finish = record.getTimeProperty(Program.PROP_TIME_FINISH);
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
 
-        JLabel label;
-        JProgressBar bar;
-
-        label = panel.getTimeLabel();
-        label.setText(DateTimeFormatter.ofPattern("HH:mm:ss").format(start.withZoneSameInstant(zone)));
-
-        label = panel.getStatusLabel();
-        bar = panel.getProgressBar();
+        time = text.time;
+        title = text.title;
+        comment = text.comment;
+        progress = -1;
 
         switch (status) {
             case Record.RECORD_DONE -> {
-                label.setForeground(defaultLabelForeground);
-                label.setFont(regularFont);
-                label.setText("\uf058");
-                bar.setVisible(false);
+                glyphColor = null;
+                glyph = "\uf058";
             }
             case Record.RECORD_RUNNING -> {
-                label.setForeground(new Color(255, 51, 51));
-                label.setFont(regularFont);
-                label.setText("\uf192");
-                bar.setVisible(true);
-                bar.setValue(progress);
+                glyphColor = RED;
+                glyph = "\uf192";
+                progress = record.getProgress();
             }
             case Record.RECORD_PENDING -> {
-                label.setForeground(defaultLabelForeground);
-                label.setFont(regularFont);
-                label.setText("\uf017");
-                bar.setVisible(false);
+                glyphColor = null;
+                glyph = "\uf017";
+            }
+            case Record.RECORD_DEFERRED -> {
+                glyphColor = ORANGE;
+                glyph = "\uf254";
+            }
+            case Record.RECORD_REFUSED -> {
+                glyphColor = RED;
+                glyph = "\uf057";
+            }
+            case Record.RECORD_MISSED -> {
+                glyphColor = RED;
+                glyph = "\uf273";
             }
             default -> {
-                label.setText("");
-                bar.setVisible(false);
+                glyph = null;
             }
         }
 
-        label = panel.getDurationLabel();
-
         switch (status) {
             case Record.RECORD_DONE -> {
-                label.setForeground(defaultLabelForeground);
-                label.setText("...");
+                durationColor = null;
+                duration = "...";
             }
             case Record.RECORD_RUNNING -> {
-                label.setForeground(new Color(255, 51, 51));
-                label.setText(String.format("%d min.", now.until(finish, ChronoUnit.MINUTES)));
+                durationColor = RED;
+                duration = CellText.minutes(text.finish - System.currentTimeMillis());
             }
             case Record.RECORD_PENDING -> {
-                label.setForeground(new Color(0, 204, 153));
-                label.setText(String.format("%d min.", start.until(finish, ChronoUnit.MINUTES)));
+                durationColor = TIME_COLOR;
+                duration = text.duration;
+            }
+            case Record.RECORD_DEFERRED -> {
+                durationColor = ORANGE;
+                duration = CellText.minutes(text.finish - System.currentTimeMillis());
+            }
+            case Record.RECORD_REFUSED, Record.RECORD_MISSED -> {
+                durationColor = RED;
+                duration = "...";
             }
             default -> {
-                label.setForeground(defaultLabelForeground);
+                durationColor = null;
+                duration = "";
             }
         }
-
-        label = panel.getTitleLabel();
-        label.setText(record.props.getProperty(Program.PROP_TITLE));
-
-        label = panel.getCommentLabel();
-        String text = record.props.getProperty(Program.PROP_COMMENT);
-        label.setText(text.isEmpty() ? " " : text);
-
-        return panel;
     }
 
 }
@@ -15,13 +15,11 @@
  */
 package cz.marelis.radiorec;
 
-import javax.swing.table.AbstractTableModel;
-
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class RecordTableModel extends AbstractTableModel {
+public class RecordTableModel extends ResponseTableModel<Record> {
 
     private RecordDirector recordDirector;
 
@@ -31,15 +29,6 @@ public class RecordTableModel extends AbstractTableModel {
     public RecordTableModel() {
     }
     
-    /**
-     *
-     * @return
-     */
-    @Override
-    public int getRowCount() {
-        return recordDirector != null ? recordDirector.itemsCount() : 0;
-    }
-
     /**
      *
      * @return
@@ -49,17 +38,6 @@ public class RecordTableModel extends AbstractTableModel {
         return 1;
     }
 
-    /**
-     *
-     * @param rowIndex
-     * @param columnIndex
-     * @return
-     */
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        return recordDirector != null ? recordDirector.getItem(rowIndex): null;
-    }
-
     /**
      *
      * @param rowIndex
@@ -105,7 +83,7 @@ public class RecordTableModel extends AbstractTableModel {
      */
     public void setRecordDirector(RecordDirector recordDirector) {
         this.recordDirector = recordDirector;
-        this.fireTableDataChanged();
+        setList(recordDirector);
     }
 
 }
@@ -15,8 +15,8 @@
  */
 package cz.marelis.radiorec;
 
-import com.mpatric.mp3agic.ID3v2;
 import com.mpatric.mp3agic.ID3v24Tag;
+import com.mpatric.mp3agic.InvalidDataException;
 import com.mpatric.mp3agic.Mp3File;
 import com.mpatric.mp3agic.MpegFrame;
 import java.io.File;
@@ -26,11 +26,15 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -43,12 +47,33 @@ import javax.swing.SwingWorker;
 public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements RecordTask {
 
     private final Record record;
-    private final String link;
+    private final List<String> links;
+    private final List<String> switches = new ArrayList<>();
+    private String link;
+    private int bitrate;
+    private int frames;
+    private long frameDuration;
+    // position of the recording in microseconds
+    private long position;
     private final File recFile;
     private final File tempFile;
     private int metaInt;
     private final AtomicBoolean finish;
     private final AtomicBoolean cancel;
+    private final LoudnessAnalyzer loudness;
+    private final RecordAdmission admission;
+    private final MirrorHealth health;
+
+    // measured throughput is reported to the admission this often
+    private final static long RATE_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final static int CONNECT_TIMEOUT = 10_000;
+    // no data for this long is a stalled stream
+    private final static int STALL_TIMEOUT = 10_000;
+    // throughput below this part of the bitrate for some intervals is a stall too
+    private final static double STALL_RATIO = 0.5;
+    private final static int STALL_INTERVALS = 3;
+    private final static long RETRY_DELAY = 2_000;
 
     /**
      *
@@ -56,11 +81,14 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
      */
     public RecordWorker(Record record) {
         this.record = record;
-        this.link = record.props.getProperty(Record.PROP_URL);
+        this.links = record.getUrls();
         this.recFile = getRecFile();
         this.tempFile = getTempFile();
         this.finish = new AtomicBoolean(false);
         this.cancel = new AtomicBoolean(false);
+        this.loudness = new LoudnessAnalyzer();
+        this.admission = RadioRec.getInstance().recordAdmission;
+        this.health = RadioRec.getInstance().mirrorHealth;
     }
 
     /**
@@ -70,44 +98,175 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
      */
     @Override
     protected Void doInBackground() throws Exception {
-        
-        HttpURLConnection httpCon = getConnection(link);
-        if (httpCon == null) {
-            System.out.println("Connection failed");
-            record.setStatus(Record.RECORD_FAILED);
-            return null;
+
+        OutputStream outputStream = null;
+
+        while (!finish.get() && !cancel.get()) {
+            HttpURLConnection httpCon = connect();
+            if (httpCon == null) {
+                if (outputStream == null) {
+                    System.out.println("Connection failed");
+                    record.setStatus(Record.RECORD_FAILED);
+                    return null;
+                }
+                // all links are down, keep trying until the record finishes
+                Thread.sleep(RETRY_DELAY);
+                continue;
+            }
+
+            if (outputStream == null) {
+                outputStream = new FileOutputStream(tempFile);
+                record.setStatus(Record.RECORD_RUNNING);
+            } else {
+                String point = String.format(Locale.ROOT, "%s %d %s", formatPosition(position), frames, link);
+                System.out.println("Switched to mirror at " + point);
+                switches.add(point);
+                record.addGapsRecorded(1);
+            }
+
+            boolean failed = true;
+            try (InputStream inputStream = httpCon.getInputStream()) {
+                failed = !readStream(inputStream, outputStream);
+            } catch (SocketTimeoutException ex) {
+                System.out.println("Stream stalled " + link);
+            } catch (IOException ex) {
+                Logger.getLogger(RecordWorker.class.getName()).log(Level.WARNING, null, ex);
+            } finally {
+                httpCon.disconnect();
+            }
+            if (failed && !finish.get() && !cancel.get()) {
+                health.failure(link);
+                System.out.println("Mirror failed " + health.toString(link));
+            }
         }
-        if (httpCon.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            System.out.println("Wrong response code " + httpCon.getResponseCode());
-            record.setStatus(Record.RECORD_FAILED);
-            return null;
+
+        if (outputStream != null) {
+            outputStream.close();
         }
 
-        metaInt = httpCon.getHeaderFieldInt("icy-metaint", 0);
+        System.out.println("Done, frames: " + frames);
 
-        if (metaInt == 0) {
-            System.out.println("Missing tag icy-metaint");
-            record.setStatus(Record.RECORD_FAILED);
+        if (cancel.get()) {
+            if (outputStream != null) {
+                Files.delete(tempFile.toPath());
+            }
+            record.setStatus(Record.RECORD_CANCELED);
             return null;
         }
-        
+
+        if (finish.get() && outputStream != null) {
+            record.setStatus(Record.RECORD_STOPPING);
+            Path parent = Path.of(recFile.getParent());
+            if (Files.notExists(parent)) {
+                Files.createDirectories(parent);
+            }
+            Mp3File mp3file = new Mp3File(tempFile);
+            ID3v24Tag id3v2Tag = getID3v24Tag();
+            LoudnessMeter meter = loudness.finish(10, TimeUnit.SECONDS);
+            if (meter != null) {
+                System.out.println("Loudness: " + meter);
+                LoudnessAnalyzer.addTagFrames(id3v2Tag, meter);
+            }
+            for (String point : switches) {
+                LoudnessAnalyzer.addFrame(id3v2Tag, "TXXX", LoudnessAnalyzer.textFrameData("RADIOREC_MIRROR_SWITCH", point));
+            }
+            mp3file.setId3v2Tag(id3v2Tag);
+            mp3file.save(recFile.getAbsolutePath());
+            Files.delete(tempFile.toPath());
+        }
+
+        return null;
+    }
+
+    /**
+     * Connects to the healthiest of the record links.
+     *
+     * @return connection with the stream ready, or null when every link
+     * failed
+     */
+    private HttpURLConnection connect() {
+        for (String candidate : health.rank(links)) {
+            if (finish.get() || cancel.get()) {
+                return null;
+            }
+            long connectStart = System.nanoTime();
+            HttpURLConnection httpCon = getConnection(candidate);
+            if (httpCon == null) {
+                health.failure(candidate);
+                continue;
+            }
+            try {
+                if (httpCon.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    System.out.println("Wrong response code " + httpCon.getResponseCode() + " " + candidate);
+                    health.failure(candidate);
+                    httpCon.disconnect();
+                    continue;
+                }
+            } catch (IOException ex) {
+                System.out.println("Connection failed " + candidate);
+                health.failure(candidate);
+                httpCon.disconnect();
+                continue;
+            }
+            health.success(candidate, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+            metaInt = httpCon.getHeaderFieldInt("icy-metaint", 0);
+            if (metaInt == 0) {
+                System.out.println("Missing tag icy-metaint " + candidate);
+                health.failure(candidate);
+                httpCon.disconnect();
+                continue;
+            }
+
+            bitrate = httpCon.getHeaderFieldInt("icy-br", 0);
+            if (bitrate > 0) {
+                record.props.setProperty(Record.PROP_BITRATE, String.valueOf(bitrate));
+                admission.updateBitrate(record, bitrate);
+            }
+
+            link = candidate;
+            return httpCon;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the stream into the output. Only complete frames are written,
+     * after a switch the output continues with the next frame found.
+     *
+     * @return true when stopped by finish or cancel, false when the stream
+     * ended or was too slow
+     */
+    private boolean readStream(InputStream inputStream, OutputStream outputStream) throws IOException {
         byte[] buffer = new byte[4096];
+        byte[] header = new byte[4];
         int readed;
         int counter = 0;
         byte[] frame = null;
-        byte[] header = new byte[4];
         int framePos = 0;
         int frameSize = 0;
         StringBuilder meta = new StringBuilder();
         int metaSize = 0;
         int metaPos = 0;
-        int frames = 0;
-        InputStream inputStream = httpCon.getInputStream();
-        OutputStream outputStream = new FileOutputStream(tempFile);
-
-        record.setStatus(Record.RECORD_RUNNING);
+        long rateBytes = 0;
+        long rateStart = System.nanoTime();
+        int slowIntervals = 0;
 
         while ((readed = inputStream.read(buffer)) > 0) {
+            rateBytes += readed;
+            long rateNanos = System.nanoTime() - rateStart;
+            if (rateNanos >= RATE_INTERVAL) {
+                int rate = (int) (rateBytes * 8_000_000L / rateNanos);
+                admission.updateBitrate(record, rate);
+                rateBytes = 0;
+                rateStart = System.nanoTime();
+                // a mirror not keeping up with its own bitrate is left when there is another one
+                slowIntervals = bitrate > 0 && rate < bitrate * STALL_RATIO ? slowIntervals + 1 : 0;
+                if (slowIntervals >= STALL_INTERVALS && links.size() > 1) {
+                    System.out.println("Stream too slow " + rate + " kbit/s " + link);
+                    return false;
+                }
+            }
             for (int idx = 0; idx < readed; idx++) {
                 if (counter < metaInt) {
                     switch (framePos) {
@@ -131,14 +290,20 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
                         }
                         case 3 -> {
                             header[3] = buffer[idx];
-                            MpegFrame mp3frame = new MpegFrame(header);
-                            frameSize = mp3frame.getLengthInBytes();
-                            frame = new byte[frameSize];
-                            frame[0] = header[0];
-                            frame[1] = header[1];
-                            frame[2] = header[2];
-                            frame[3] = header[3];
-                            framePos++;
+                            try {
+                                MpegFrame mp3frame = new MpegFrame(header);
+                                frameSize = mp3frame.getLengthInBytes();
+                                frameDuration = 1152 * 1_000_000L / mp3frame.getSampleRate();
+                                frame = new byte[frameSize];
+                                frame[0] = header[0];
+                                frame[1] = header[1];
+                                frame[2] = header[2];
+                                frame[3] = header[3];
+                                framePos++;
+                            } catch (InvalidDataException ex) {
+                                // false sync, look for the next frame
+                                framePos = 0;
+                            }
                         }
                         default -> {
                             if (framePos < frameSize) {
@@ -146,8 +311,11 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
                                 framePos++;
                                 if (framePos == frameSize) {
                                     outputStream.write(frame, 0, frameSize);
+                                    record.addBytesRecorded(frameSize);
+                                    loudness.addFrame(frame, frameSize);
                                     framePos = 0;
                                     frames++;
+                                    position += frameDuration;
                                 }
                             }
                         }
@@ -179,39 +347,22 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
                 }
             }
             if (finish.get()) {
-                outputStream.close();
                 System.out.println("Finish !");
-                break;
+                return true;
             }
             if (cancel.get()) {
-                outputStream.close();
                 System.out.println("Cancel !");
-                break;
+                return true;
             }
         }
+        System.out.println("Stream ended " + link);
+        return false;
+    }
 
-        System.out.println("Done, frames: " + frames);
-
-        if (cancel.get()) {
-            Files.delete(tempFile.toPath());
-            record.setStatus(Record.RECORD_CANCELED);
-            return null;
-        }
-
-        if (finish.get()) {
-            record.setStatus(Record.RECORD_STOPPING);
-            Path parent = Path.of(recFile.getParent());
-            if (Files.notExists(parent)) {
-                Files.createDirectories(parent);
-            }
-            Mp3File mp3file = new Mp3File(tempFile);
-            ID3v2 id3v2Tag = getID3v24Tag();
-            mp3file.setId3v2Tag(id3v2Tag);
-            mp3file.save(recFile.getAbsolutePath());
-            Files.delete(tempFile.toPath());
-        }
-
-        return null;
+    private static String formatPosition(long micros) {
+        long seconds = micros / 1_000_000;
+        return String.format(Locale.ROOT, "%02d:%02d:%02d.%03d",
+                seconds / 3600, seconds / 60 % 60, seconds % 60, micros / 1000 % 1000);
     }
 
     /**
@@ -219,6 +370,8 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
      */
     @Override
     protected void done() {
+        loudness.cancel();
+        admission.release(record);
         record.setStatus(Record.RECORD_DONE);
     }
 
@@ -238,6 +391,8 @@ public class RecordWorker extends SwingWorker<Void, ResponseEvent> implements Re
             result.setRequestProperty("Accept", "text/html");
             result.setRequestProperty("Accept-Language", "en-US");
             result.setRequestProperty("Icy-MetaData", "1"); // meta data request
+            result.setConnectTimeout(CONNECT_TIMEOUT);
+            result.setReadTimeout(STALL_TIMEOUT);
             return result;
         } catch (MalformedURLException ex) {
             Logger.getLogger(Record.class.getName()).log(Level.SEVERE, null, ex);
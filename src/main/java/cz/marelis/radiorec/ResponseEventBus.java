@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Collects events from any thread and delivers them in batches on the
+ * executor. An event without an object only tells that the state of its
+ * source changed, so while a batch waits, repeated events of the same source
+ * and id are merged into the first one. Events carrying an object, like the
+ * item events of the lists, are all kept in their order.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ResponseEventBus implements ResponseListener {
+
+    private final Executor executor;
+
+    private final List<ResponseListener> listeners = new CopyOnWriteArrayList<>();
+
+    // ids of the waiting events by their source, one bit per id
+    private final Map<Object, Integer> queued = new IdentityHashMap<>();
+
+    // the batches are swapped, so no list is allocated per dispatch
+    private ArrayList<ResponseEvent> pending = new ArrayList<>();
+    private ArrayList<ResponseEvent> dispatching = new ArrayList<>();
+
+    private boolean posted;
+
+    private long received;
+
+    private long delivered;
+
+    /**
+     *
+     * @param executor runs the deliveries one after another, e.g.
+     * EventQueue::invokeLater
+     */
+    public ResponseEventBus(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     *
+     * @param rel
+     */
+    public void addResponseListener(ResponseListener rel) {
+        listeners.add(rel);
+    }
+
+    /**
+     *
+     * @param rel
+     */
+    public void removeResponseListener(ResponseListener rel) {
+        listeners.remove(rel);
+    }
+
+    /**
+     *
+     * @return number of events received
+     */
+    public synchronized long getReceivedCount() {
+        return received;
+    }
+
+    /**
+     *
+     * @return number of events delivered after merging
+     */
+    public synchronized long getDeliveredCount() {
+        return delivered;
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    public void onResponseEvent(ResponseEvent re) {
+        synchronized (this) {
+            received++;
+            int id = re.getId();
+            if (re.getObject() == null && id >= 0 && id < Integer.SIZE) {
+                int bit = 1 << id;
+                Integer ids = queued.get(re.getSource());
+                if (ids != null && (ids & bit) != 0) {
+                    return;
+                }
+                queued.put(re.getSource(), ids == null ? bit : ids | bit);
+            }
+            pending.add(re);
+            if (posted) {
+                return;
+            }
+            posted = true;
+        }
+        executor.execute(this::dispatch);
+    }
+
+    private void dispatch() {
+        ArrayList<ResponseEvent> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = dispatching;
+            dispatching = batch;
+            queued.clear();
+            posted = false;
+            delivered += batch.size();
+        }
+        try {
+            for (ResponseListener listener : listeners) {
+                listener.onResponseEvents(batch);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+}
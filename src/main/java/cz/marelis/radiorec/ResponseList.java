@@ -15,11 +15,27 @@
  */
 package cz.marelis.radiorec;
 
+import java.awt.EventQueue;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
+ * List of nodes firing item events. The items are changed on the domain
+ * thread only, every change publishes a new immutable array of the items, so
+ * the other threads read a consistent state without locking. Events are
+ * fired after the change, without any lock held.
  *
  * @author Marek Liška <adlatus@marelis.cz>
  * @param <T>
@@ -42,7 +58,85 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      */
     public static final int EVT_ITEM_CHANGED = 2;
 
-    private final ArrayList<T> items = new ArrayList<>();
+    /**
+     * Items changed by a batch, the event object is the {@link ItemChanges}
+     */
+    public static final int EVT_ITEMS_BATCH = 5;
+
+    private final static Object[] NO_ITEMS = new Object[0];
+
+    /**
+     * Items published by a change, the array is never modified. The lookup
+     * maps are built on the first lookup and kept until the next change.
+     */
+    private final static class Items {
+
+        final Object[] array;
+
+        // index of every item by identity
+        private volatile Map<Object, Integer> positions;
+
+        // index of every item by its key
+        private volatile Map<Object, Integer> keys;
+
+        Items(Object[] array) {
+            this.array = array;
+        }
+
+        int indexOf(Object item) {
+            Map<Object, Integer> map = positions;
+            if (map == null) {
+                map = new IdentityHashMap<>(array.length);
+                // the first of repeated items wins
+                for (int i = array.length - 1; i >= 0; i--) {
+                    map.put(array[i], i);
+                }
+                positions = map;
+            }
+            Integer idx = map.get(item);
+            return idx != null ? idx : -1;
+        }
+
+        int indexOfKey(Function<Object, Object> keyOf, Object key) {
+            Map<Object, Integer> map = keys;
+            if (map == null) {
+                map = new HashMap<>();
+                for (int i = array.length - 1; i >= 0; i--) {
+                    Object val = keyOf.apply(array[i]);
+                    if (val != null) {
+                        map.put(val, i);
+                    }
+                }
+                keys = map;
+            }
+            Integer idx = map.get(key);
+            return idx != null ? idx : -1;
+        }
+    }
+
+    // replaced as a whole by every change, so the items are read from any
+    // thread without a lock
+    private volatile Items items = new Items(NO_ITEMS);
+
+    /**
+     * Runs the command on the domain thread, the event dispatch thread. Lists
+     * are changed there only, other threads post their changes by this
+     * method.
+     *
+     * @param command
+     */
+    public static void invokeLater(Runnable command) {
+        EventQueue.invokeLater(command);
+    }
+
+    /**
+     *
+     * @return immutable list of the items at the time of the call
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getSnapshot() {
+        return Collections.unmodifiableList((List<T>) (List<?>) Arrays.asList(items.array));
+    }
 
     /**
      *
@@ -50,7 +144,7 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      */
     @Override
     public Iterator<T> iterator() {
-        return items.iterator();
+        return getSnapshot().iterator();
     }
 
     /**
@@ -58,7 +152,7 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      * @return
      */
     public int itemsCount() {
-        return items.size();
+        return items.array.length;
     }
 
     /**
@@ -66,30 +160,38 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      * @return
      */
     public boolean isEmpty() {
-        return items.isEmpty();
+        return items.array.length == 0;
     }
 
     /**
      *
      */
     public void clearItems() {
-        int size = items.size();
-        ArrayList<T> list = new ArrayList<>();
-        if (size > 0) {
-            items.forEach((T item) -> item.removeResponseListener(ResponseList.this));
-            list.addAll(items);
-            items.clear();
-            fireResponseEvent(new ResponseEvent(this, EVT_ITEM_REMOVED, list, "ResponseList.clearItems"));
+        Object[] old;
+        synchronized (this) {
+            old = items.array;
+            items = new Items(NO_ITEMS);
+        }
+        if (old.length > 0) {
+            List<T> list = toList(old);
+            list.forEach(item -> item.removeResponseListener(ResponseList.this));
+            fireItemEvent(EVT_ITEM_REMOVED, list, "ResponseList.clearItems");
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private List<T> toList(Object[] array) {
+        return new ArrayList<>((List<T>) (List<?>) Arrays.asList(array));
+    }
+
     /**
      *
      * @param idx
      * @return
      */
+    @SuppressWarnings("unchecked")
     public T getItem(int idx) {
-        return items.get(idx);
+        return (T) items.array[idx];
     }
 
     /**
@@ -97,7 +199,7 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      * @param item
      */
     public void removeItem(T item) {
-        int idx = items.indexOf(item);
+        int idx = indexOfItem(item);
         if (idx >= 0) {
             removeItem(idx);
         }
@@ -108,10 +210,20 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
      * @param idx
      * @return
      */
+    @SuppressWarnings("unchecked")
     public T removeItem(int idx) {
-        T old = items.remove(idx);
+        T old;
+        synchronized (this) {
+            Object[] array = items.array;
+            Objects.checkIndex(idx, array.length);
+            Object[] val = new Object[array.length - 1];
+            old = (T) array[idx];
+            System.arraycopy(array, 0, val, 0, idx);
+            System.arraycopy(array, idx + 1, val, idx, val.length - idx);
+            items = new Items(val);
+        }
         old.removeResponseListener(this);
-        fireResponseEvent(new ResponseEvent(this, EVT_ITEM_REMOVED, old, "ResponseList.removeItem"));
+        fireItemEvent(EVT_ITEM_REMOVED, old, "ResponseList.removeItem");
         return old;
     }
 
@@ -123,9 +235,22 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
         if (c.isEmpty()) {
             return;
         }
-        items.removeAll(c);
+        Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>(c.size()));
+        removed.addAll(c);
+        synchronized (this) {
+            // a single pass keeping the other items in their order
+            Object[] array = items.array;
+            Object[] val = new Object[array.length];
+            int size = 0;
+            for (Object item : array) {
+                if (!removed.contains(item)) {
+                    val[size++] = item;
+                }
+            }
+            items = new Items(size < val.length ? Arrays.copyOf(val, size) : val);
+        }
         c.forEach(item -> item.removeResponseListener(this));
-        fireResponseEvent(new ResponseEvent(this, EVT_ITEM_REMOVED, c, "ResponseList.removeItems"));
+        fireItemEvent(EVT_ITEM_REMOVED, c, "ResponseList.removeItems");
     }
 
     /**
@@ -137,11 +262,16 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
         if (item == null) {
             return;
         }
-        ResponseNode old = getItem(idx);
+        ResponseNode old;
+        synchronized (this) {
+            Object[] val = items.array.clone();
+            old = (ResponseNode) val[idx];
+            val[idx] = item;
+            items = new Items(val);
+        }
         old.removeResponseListener(this);
-        items.set(idx, item);
         item.addResponseListener(this);
-        fireResponseEvent(new ResponseEvent(this, EVT_ITEM_CHANGED, item, "ResponseList.setItem"));
+        fireItemEvent(EVT_ITEM_CHANGED, item, "ResponseList.setItem");
     }
 
     /**
@@ -152,9 +282,14 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
         if (item == null) {
             return;
         }
-        items.add(item);
+        synchronized (this) {
+            Object[] array = items.array;
+            Object[] val = Arrays.copyOf(array, array.length + 1);
+            val[array.length] = item;
+            items = new Items(val);
+        }
         item.addResponseListener(this);
-        fireResponseEvent(new ResponseEvent(this, EVT_ITEM_ADDED, item, "ResponseList.addItem"));
+        fireItemEvent(EVT_ITEM_ADDED, item, "ResponseList.addItem");
     }
 
     /**
@@ -165,36 +300,172 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
         if (c.isEmpty()) {
             return;
         }
-        items.addAll(c);
+        synchronized (this) {
+            Object[] array = items.array;
+            Object[] added = c.toArray();
+            Object[] val = Arrays.copyOf(array, array.length + added.length);
+            System.arraycopy(added, 0, val, array.length, added.length);
+            items = new Items(val);
+        }
         c.forEach(item -> item.addResponseListener(this));
-        fireResponseEvent(new ResponseEvent(this, EVT_ITEM_ADDED, c, "ResponseList.addItems"));
+        fireItemEvent(EVT_ITEM_ADDED, c, "ResponseList.addItems");
     }
 
     /**
+     * All items are replaced by a single batch.
      *
      * @param c
      */
     public void replaceItems(Collection<? extends T> c) {
-        clearItems();
-        addItems(c);
+        batch(batch -> {
+            batch.clear();
+            batch.addAll(c);
+        });
+    }
+
+    /**
+     * Applies the changes made by the action at once and fires a single
+     * batch event, nothing when nothing changed.
+     *
+     * @param action
+     * @return the changes
+     */
+    @SuppressWarnings("unchecked")
+    public ItemChanges<T> batch(Consumer<ItemBatch<T>> action) {
+        ItemBatch<T> batch = new ItemBatch<>();
+        action.accept(batch);
+        ItemChanges<T> changes;
+        synchronized (this) {
+            Object[] array = items.array;
+            List<T> removed = new ArrayList<>();
+            int[] removedIndexes = new int[array.length];
+            Object[] val = new Object[array.length + batch.added.size()];
+            int size = 0;
+            for (int i = 0; i < array.length; i++) {
+                T item = (T) array[i];
+                if (batch.clear || batch.removed.contains(item)) {
+                    removedIndexes[removed.size()] = i;
+                    removed.add(item);
+                } else {
+                    val[size++] = item;
+                }
+            }
+            int[] insertedIndexes = new int[batch.added.size()];
+            for (int i = 0; i < insertedIndexes.length; i++) {
+                insertedIndexes[i] = size;
+                val[size++] = batch.added.get(i);
+            }
+            Items result = new Items(size < val.length ? Arrays.copyOf(val, size) : val);
+            List<T> updated = new ArrayList<>();
+            int[] updatedIndexes = new int[batch.updated.size()];
+            for (T item : batch.updated) {
+                int idx = result.indexOf(item);
+                if (idx >= 0 && idx < size - insertedIndexes.length) {
+                    updatedIndexes[updated.size()] = idx;
+                    updated.add(item);
+                }
+            }
+            updatedIndexes = Arrays.copyOf(updatedIndexes, updated.size());
+            Arrays.sort(updatedIndexes);
+            updated.clear();
+            for (int idx : updatedIndexes) {
+                updated.add((T) result.array[idx]);
+            }
+            changes = new ItemChanges<>(removed, Arrays.copyOf(removedIndexes, removed.size()),
+                    new ArrayList<>(batch.added), insertedIndexes, updated, updatedIndexes);
+            if (!changes.isEmpty()) {
+                items = result;
+            }
+        }
+        if (!changes.isEmpty()) {
+            changes.getRemoved().forEach(item -> item.removeResponseListener(this));
+            changes.getInserted().forEach(item -> item.addResponseListener(this));
+            fireItemEvent(EVT_ITEMS_BATCH, changes, "ResponseList.batch");
+        }
+        return changes;
+    }
+
+    /**
+     * Called after every change of the items, before the item event is
+     * fired.
+     *
+     * @param id item event id
+     * @param obj item or collection of items
+     */
+    protected void itemsChanged(int id, Object obj) {
+    }
+
+    private void fireItemEvent(int id, Object obj, String msg) {
+        itemsChanged(id, obj);
+        fireResponseEvent(new ResponseEvent(this, id, obj, msg));
     }
 
     /**
      *
      * @param item
-     * @return
+     * @return index of the very item, or -1
      */
     public int indexOfItem(T item) {
         return items.indexOf(item);
     }
 
     /**
+     * Key identifying the content of the item. Lists returning a key are
+     * indexed by it, the key of an item may change only together with an
+     * item event or a call of {@link #reindexKeys()}.
      *
      * @param item
-     * @return
+     * @return key of the item, or null when the list has no keys
+     */
+    protected Object getItemKey(T item) {
+        return null;
+    }
+
+    /**
+     * The keys of the items changed.
+     */
+    protected void reindexKeys() {
+        synchronized (this) {
+            items = new Items(items.array);
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @return index of the item with the key, or -1
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOfKey(Object key) {
+        return items.indexOfKey(item -> getItemKey((T) item), key);
+    }
+
+    /**
+     *
+     * @param item
+     * @return true when an item with the same key, or with the same
+     * properties in a list without keys, is in the list
      */
     public boolean containsItem(T item) {
-        return items.stream().anyMatch(node -> (node.props.equals(item.props)));
+        Object key = getItemKey(item);
+        if (key != null) {
+            return indexOfKey(key) >= 0;
+        }
+        return getSnapshot().stream().anyMatch(node -> (node.props.equals(item.props)));
+    }
+
+    /**
+     * Items of an item event, a single node or a collection of them.
+     *
+     * @param obj object of the event
+     * @param action
+     */
+    public static void forEachItem(Object obj, Consumer<ResponseNode> action) {
+        if (obj instanceof Collection<?> collection) {
+            collection.forEach(item -> action.accept((ResponseNode) item));
+        } else if (obj instanceof ResponseNode node) {
+            action.accept(node);
+        }
     }
 
     /**
@@ -206,4 +477,13 @@ public abstract class ResponseList<T extends ResponseNode> extends ResponseNode
         fireResponseEvent(re);
     }
 
+    /**
+     * Lists are not updated, the scheduler updates their items directly.
+     *
+     * @param time
+     */
+    @Override
+    public void update(ZonedDateTime time) {
+    }
+
 }
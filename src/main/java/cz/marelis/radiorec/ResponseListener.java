@@ -15,6 +15,8 @@
  */
 package cz.marelis.radiorec;
 
+import java.util.List;
+
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
@@ -26,5 +28,15 @@ public interface ResponseListener {
      * @param re
      */
     public void onResponseEvent(ResponseEvent re);
+
+    /**
+     * Events delivered together by a {@link ResponseEventBus}, the list is
+     * valid only during the call.
+     *
+     * @param batch
+     */
+    public default void onResponseEvents(List<ResponseEvent> batch) {
+        batch.forEach(this::onResponseEvent);
+    }
     
 }
@@ -15,14 +15,11 @@
  */
 package cz.marelis.radiorec;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Properties;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  *
@@ -50,32 +47,58 @@ public abstract class ResponseNode {
      */
     public final static int EVT_REMOVE_CHANGED = 3; // 2 ?
 
+    private final static ZoneId UTC = ZoneId.of("UTC");
+
     /**
      *
      */
-    public final Properties props = new Properties();
+    public final NodeProps props;
 
-    private final static String TIME_FORMAT = "yyyyMMddHHmmss";
+    private volatile int status;
 
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_FORMAT);
+    private volatile int progress;
 
-    private final AtomicInteger status = new AtomicInteger();
+    private volatile boolean irremovable;
 
-    private final AtomicInteger progress = new AtomicInteger();
+    private volatile boolean remove;
 
-    private final AtomicBoolean irremovable = new AtomicBoolean();
+    private final static ResponseListener[] NO_LISTENERS = new ResponseListener[0];
 
-    private final AtomicBoolean remove = new AtomicBoolean();
+    private final static AtomicReferenceFieldUpdater<ResponseNode, ResponseListener[]> LISTENERS
+            = AtomicReferenceFieldUpdater.newUpdater(ResponseNode.class, ResponseListener[].class, "listeners");
+
+    // replaced as a whole on every change, so events are fired without a lock
+    private volatile ResponseListener[] listeners = NO_LISTENERS;
+
+    // the events of frequent changes carry no object, so they are created once
+    private ResponseEvent statusEvent;
+
+    private ResponseEvent progressEvent;
+
+    /**
+     * Node without known properties.
+     */
+    protected ResponseNode() {
+        this(NodeProps.Schema.EMPTY);
+    }
+
+    /**
+     *
+     * @param schema properties known by the node class
+     */
+    protected ResponseNode(NodeProps.Schema schema) {
+        props = new NodeProps(schema);
+    }
 
-    private final ArrayList<ResponseListener> listeners = new ArrayList<>();
-    
     /**
      *
      * @param propName
      * @param zdt
      */
     public void setTimeProperty(String propName, ZonedDateTime zdt) {
-        props.put(propName, formatter.format(zdt.withZoneSameInstant(ZoneId.of("UTC"))));
+        // whole seconds, as stored
+        long millis = zdt.toInstant().toEpochMilli();
+        props.setTimeMillis(propName, millis - Math.floorMod(millis, 1000));
     }
     
     /**
@@ -84,8 +107,59 @@ public abstract class ResponseNode {
      * @return
      */
     public ZonedDateTime getTimeProperty(String propName) {
-        LocalDateTime local = LocalDateTime.parse(props.getProperty(propName), formatter);
-        return local.atZone(ZoneId.of("UTC"));
+        return toTime(getTimeMillis(propName));
+    }
+
+    /**
+     *
+     * @param propName
+     * @return time property in epoch milliseconds
+     */
+    public long getTimeMillis(String propName) {
+        return props.getTimeMillis(propName);
+    }
+
+    /**
+     *
+     * @param millis epoch milliseconds
+     * @return
+     */
+    protected static ZonedDateTime toTime(long millis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), UTC);
+    }
+
+    /**
+     * Progress in whole percent of whole seconds elapsed.
+     *
+     * @param start epoch milliseconds
+     * @param finish epoch milliseconds
+     * @param time epoch milliseconds
+     * @return
+     */
+    protected static int getProgress(long start, long finish, long time) {
+        long total = (finish - start) / 1000;
+        if (total <= 0) {
+            return 0;
+        }
+        return (int) ((time - start) / 1000 * 100 / total);
+    }
+
+    /**
+     * The progress moves to the next percent once the elapsed seconds reach
+     * ceil((progress + 1) * total / 100).
+     *
+     * @param start epoch milliseconds
+     * @param finish epoch milliseconds
+     * @param time epoch milliseconds
+     * @return epoch milliseconds of the next progress change
+     */
+    protected static long getNextProgressTime(long start, long finish, long time) {
+        long total = (finish - start) / 1000;
+        if (total <= 0) {
+            return finish;
+        }
+        long next = getProgress(start, finish, time) + 1;
+        return start + (next * total + 99) / 100 * 1000;
     }
 
     /**
@@ -93,7 +167,7 @@ public abstract class ResponseNode {
      * @return
      */
     public int getStatus() {
-        return status.get();
+        return status;
     }
 
     /**
@@ -101,10 +175,12 @@ public abstract class ResponseNode {
      * @param val
      */
     public void setStatus(int val) {
-        int old = status.get();
-        if (val != old) {
-            status.set(val);
-            fireResponseEvent(new ResponseEvent(this, EVT_STATUS_CHANGED, null, "ResponseNode.setStatus"));
+        if (val != status) {
+            status = val;
+            if (statusEvent == null) {
+                statusEvent = new ResponseEvent(this, EVT_STATUS_CHANGED, null, "ResponseNode.setStatus");
+            }
+            fireResponseEvent(statusEvent);
         }
     }
 
@@ -114,7 +190,7 @@ public abstract class ResponseNode {
      * @return
      */
     public boolean isStatus(int val) {
-        return status.get() == val;
+        return status == val;
     }
 
     /**
@@ -122,7 +198,7 @@ public abstract class ResponseNode {
      * @return
      */
     public int getProgress() {
-        return progress.get();
+        return progress;
     }
 
     /**
@@ -130,10 +206,12 @@ public abstract class ResponseNode {
      * @param val
      */
     public void setProgress(int val) {
-        int old = progress.get();
-        if (val != old) {
-            progress.set(val);
-            fireResponseEvent(new ResponseEvent(this, EVT_PROGRESS_CHANGED, null, "ResponseNode.setProgress"));
+        if (val != progress) {
+            progress = val;
+            if (progressEvent == null) {
+                progressEvent = new ResponseEvent(this, EVT_PROGRESS_CHANGED, null, "ResponseNode.setProgress");
+            }
+            fireResponseEvent(progressEvent);
         }
     }
 
@@ -142,9 +220,8 @@ public abstract class ResponseNode {
      * @param val
      */
     public void setIrremovable(boolean val) {
-        boolean old = irremovable.get();
-        if (val != old) {
-            irremovable.set(val);
+        if (val != irremovable) {
+            irremovable = val;
             fireResponseEvent(new ResponseEvent(this, EVT_REMOVE_CHANGED, null, "ResponseNode.setRemove"));
         }
     }
@@ -154,7 +231,7 @@ public abstract class ResponseNode {
      * @return
      */
     public boolean isIrremovable() {
-        return irremovable.get();
+        return irremovable;
     }
     
     /**
@@ -165,9 +242,8 @@ public abstract class ResponseNode {
         if (isIrremovable()) {
             return;
         }
-        boolean old = remove.get();
-        if (val != old) {
-            remove.set(val);
+        if (val != remove) {
+            remove = val;
             fireResponseEvent(new ResponseEvent(this, EVT_REMOVE_CHANGED, null, "ResponseNode.setRemove"));
         }
     }
@@ -177,31 +253,50 @@ public abstract class ResponseNode {
      * @return
      */
     public boolean isRemove() {
-        return remove.get();
+        return remove;
     }
 
     /**
      *
      * @param rel
      */
-    public synchronized void addResponseListener(ResponseListener rel) {
-        listeners.add(rel);
+    public void addResponseListener(ResponseListener rel) {
+        ResponseListener[] old, val;
+        do {
+            old = listeners;
+            val = Arrays.copyOf(old, old.length + 1);
+            val[old.length] = rel;
+        } while (!LISTENERS.compareAndSet(this, old, val));
     }
 
     /**
      *
      * @param rel
      */
-    public synchronized void removeResponseListener(ResponseListener rel) {
-        listeners.remove(rel);
+    public void removeResponseListener(ResponseListener rel) {
+        ResponseListener[] old, val;
+        do {
+            old = listeners;
+            int idx = Arrays.asList(old).indexOf(rel);
+            if (idx < 0) {
+                return;
+            }
+            val = old.length == 1 ? NO_LISTENERS : new ResponseListener[old.length - 1];
+            System.arraycopy(old, 0, val, 0, idx);
+            System.arraycopy(old, idx + 1, val, idx, old.length - idx - 1);
+        } while (!LISTENERS.compareAndSet(this, old, val));
     }
 
     /**
+     * Listeners added or removed meanwhile are not affected by the event
+     * being fired.
      *
      * @param re
      */
-    public synchronized void fireResponseEvent(ResponseEvent re) {
-        listeners.forEach(listener -> listener.onResponseEvent(re));
+    public void fireResponseEvent(ResponseEvent re) {
+        for (ResponseListener listener : listeners) {
+            listener.onResponseEvent(re);
+        }
     }
 
     /**
@@ -213,11 +308,10 @@ public abstract class ResponseNode {
         StringBuilder sb = new StringBuilder();
         sb.append("ResponseNode{");
         sb.append("props=").append(props);
-        sb.append(", formatter=").append(formatter);
         sb.append(", status=").append(status);
         sb.append(", progress=").append(progress);
         sb.append(", remove=").append(remove);
-        sb.append(", listeners=").append(listeners);
+        sb.append(", listeners=").append(Arrays.toString(listeners));
         sb.append('}');
         return sb.toString();
     }
@@ -227,5 +321,16 @@ public abstract class ResponseNode {
      * @param time
      */
     public abstract void update(ZonedDateTime time);
+
+    /**
+     * Tells the scheduler when the node has to be updated next.
+     *
+     * @param time
+     * @return time of the next update, or null when the node waits for an
+     * event
+     */
+    public ZonedDateTime getNextUpdate(ZonedDateTime time) {
+        return null;
+    }
     
 }
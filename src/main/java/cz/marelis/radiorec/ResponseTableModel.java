@@ -0,0 +1,231 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table of the items of a response list. The rows are a copy of the list
+ * kept on the event dispatch thread, so the table never sees a change before
+ * its event. When the events are delivered the copy is brought up to date
+ * and only the deleted, inserted and updated rows are fired.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ * @param <T>
+ */
+public abstract class ResponseTableModel<T extends ResponseNode> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    // more ranges than this are fired as a change of all rows
+    private final static int MAX_RANGES = 32;
+
+    private transient ResponseList<T> list;
+
+    private transient ArrayList<Object> rows = new ArrayList<>();
+
+    private transient Map<Object, Integer> positions;
+
+    /**
+     *
+     * @return
+     */
+    protected ResponseList<T> getList() {
+        return list;
+    }
+
+    /**
+     *
+     * @param list
+     */
+    protected void setList(ResponseList<T> list) {
+        this.list = list;
+        rows = new ArrayList<>(getSnapshot());
+        positions = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     *
+     * @return items to show in the rows, in their order
+     */
+    protected List<T> getSnapshot() {
+        return list != null ? list.getSnapshot() : List.of();
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getItem(rowIndex);
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @return item shown in the row of the model
+     */
+    @SuppressWarnings("unchecked")
+    public T getItem(int rowIndex) {
+        return rowIndex >= 0 && rowIndex < rows.size() ? (T) rows.get(rowIndex) : null;
+    }
+
+    /**
+     *
+     * @param item
+     * @return row of the item in the model, or -1
+     */
+    public int indexOfItem(Object item) {
+        Integer idx = getPositions().get(item);
+        return idx != null ? idx : -1;
+    }
+
+    private Map<Object, Integer> getPositions() {
+        if (positions == null) {
+            positions = new IdentityHashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                positions.put(rows.get(i), i);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Brings the rows up to date with the list. Deleted rows are fired from
+     * the end, inserted ones from the start, so every event matches the rows
+     * at its time. Rows which moved are fired as a change of all rows.
+     */
+    public void listChanged() {
+        List<T> snapshot = getSnapshot();
+        Map<Object, Integer> next = new IdentityHashMap<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            next.put(snapshot.get(i), i);
+        }
+        Map<Object, Integer> prev = getPositions();
+
+        // the kept rows have to stay in the same order
+        int last = -1;
+        for (Object row : rows) {
+            Integer idx = next.get(row);
+            if (idx != null) {
+                if (idx < last) {
+                    setRows(snapshot);
+                    fireTableDataChanged();
+                    return;
+                }
+                last = idx;
+            }
+        }
+
+        List<int[]> deleted = ranges(rows, item -> !next.containsKey(item));
+        List<int[]> inserted = ranges(snapshot, item -> !prev.containsKey(item));
+        if (deleted.isEmpty() && inserted.isEmpty()) {
+            return;
+        }
+        if (deleted.size() + inserted.size() > MAX_RANGES) {
+            setRows(snapshot);
+            fireTableDataChanged();
+            return;
+        }
+        positions = null;
+        for (int i = deleted.size() - 1; i >= 0; i--) {
+            int[] range = deleted.get(i);
+            rows.subList(range[0], range[1] + 1).clear();
+            fireTableRowsDeleted(range[0], range[1]);
+        }
+        for (int[] range : inserted) {
+            rows.addAll(range[0], snapshot.subList(range[0], range[1] + 1));
+            fireTableRowsInserted(range[0], range[1]);
+        }
+        positions = null;
+    }
+
+    /**
+     * The items changed, the rows showing them are repainted.
+     *
+     * @param items
+     */
+    public void itemsUpdated(Collection<?> items) {
+        int[] indexes = new int[items.size()];
+        int count = 0;
+        for (Object item : items) {
+            int idx = indexOfItem(item);
+            if (idx >= 0) {
+                indexes[count++] = idx;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        indexes = Arrays.copyOf(indexes, count);
+        Arrays.sort(indexes);
+        List<int[]> updated = new ArrayList<>();
+        for (int idx : indexes) {
+            int[] range = updated.isEmpty() ? null : updated.get(updated.size() - 1);
+            if (range != null && range[1] + 1 >= idx) {
+                range[1] = idx;
+            } else {
+                updated.add(new int[]{idx, idx});
+            }
+        }
+        if (updated.size() > MAX_RANGES) {
+            fireTableRowsUpdated(0, rows.size() - 1);
+            return;
+        }
+        updated.forEach(range -> fireTableRowsUpdated(range[0], range[1]));
+    }
+
+    private void setRows(List<T> snapshot) {
+        rows = new ArrayList<>(snapshot);
+        positions = null;
+    }
+
+    private static List<int[]> ranges(List<?> items, Predicate<Object> test) {
+        List<int[]> list = new ArrayList<>();
+        int first = -1;
+        for (int i = 0; i <= items.size(); i++) {
+            boolean in = i < items.size() && test.test(items.get(i));
+            if (in && first < 0) {
+                first = i;
+            } else if (!in && first >= 0) {
+                list.add(new int[]{first, i - 1});
+                first = -1;
+            }
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recording rules of a station. Records created by the rules are added to
+ * the records of the station, pending ones are removed with their rule.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RuleDirector extends ResponseList<RecordRule> {
+
+    private final Station station;
+
+    /**
+     *
+     * @param station
+     */
+    public RuleDirector(Station station) {
+        this.station = station;
+    }
+
+    /**
+     *
+     * @param rule
+     * @param records
+     */
+    public void addRecords(RecordRule rule, List<Record> records) {
+        if (indexOfItem(rule) < 0) {
+            return;
+        }
+        RecordIndex index = RadioRec.getInstance().recordIndex;
+        String link = station.props.getProperty(Station.PROP_STATION_LINK);
+        ArrayList<Record> list = new ArrayList<>();
+        for (Record record : records) {
+            // occurrences created again after an edit of the rule
+            long start = record.getTimeMillis(Record.PROP_TIME_START);
+            boolean created = index.getOverlapping(link, start, record.getTimeMillis(Record.PROP_TIME_FINISH)).stream()
+                    .anyMatch(item -> rule.getRuleId().equals(item.props.getProperty(RecordRule.PROP_RULE_ID))
+                    && item.getTimeMillis(Record.PROP_TIME_START) == start);
+            if (created) {
+                continue;
+            }
+            setStationProps(record);
+            list.add(record);
+        }
+        station.recordDirector.addItems(list);
+    }
+
+    private void setStationProps(Record record) {
+        record.props.setProperty(Record.PROP_URL, station.props.getProperty(Station.PROP_STATION_LINK));
+        record.props.setProperty(Record.PROP_URL_MIRRORS, station.getStationMirrors());
+        record.props.setProperty(Record.PROP_FILE_DIR, station.getRecordDirName());
+        record.props.setProperty(Record.PROP_FILE_NAME, station.getRecordFileName(record));
+    }
+
+    /**
+     * Occurrences of the rules within the window which are not among the
+     * records of the station yet, e.g. for planning beyond the horizon of
+     * the expansion. The records are not added to the station.
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public List<Record> getOccurrences(ZonedDateTime from, ZonedDateTime to) {
+        Set<String> created = new HashSet<>();
+        for (Record record : station.recordDirector) {
+            String id = record.props.getProperty(RecordRule.PROP_RULE_ID);
+            if (id != null) {
+                created.add(id + ' ' + record.getTimeMillis(Record.PROP_TIME_START));
+            }
+        }
+        List<Record> list = new ArrayList<>();
+        for (RecordRule rule : this) {
+            if (rule.isRemove()) {
+                continue;
+            }
+            for (Record record : rule.getRecords(from, to)) {
+                if (created.add(rule.getRuleId() + ' ' + record.getTimeMillis(Record.PROP_TIME_START))) {
+                    setStationProps(record);
+                    list.add(record);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Removes pending records created by the rule. A rule marked for removal
+     * has no further occurrence, its last records are kept.
+     *
+     * @param rule
+     */
+    public void removeRecords(RecordRule rule) {
+        if (rule.isRemove()) {
+            return;
+        }
+        ArrayList<Record> list = new ArrayList<>();
+        for (Record record : station.recordDirector) {
+            if (record.isStatus(Record.RECORD_PENDING)
+                    && rule.getRuleId().equals(record.props.getProperty(RecordRule.PROP_RULE_ID))) {
+                list.add(record);
+            }
+        }
+        station.recordDirector.removeItems(list);
+    }
+
+    /**
+     *
+     * @param record
+     * @return the rule which created the record, or null
+     */
+    public RecordRule getRule(Record record) {
+        String id = record.props.getProperty(RecordRule.PROP_RULE_ID);
+        if (id == null) {
+            return null;
+        }
+        for (RecordRule rule : this) {
+            if (id.equals(rule.getRuleId())) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void clearItems() {
+        List<RecordRule> list = new ArrayList<>();
+        forEach(list::add);
+        super.clearItems();
+        list.forEach(this::removeRecords);
+    }
+
+    /**
+     *
+     * @param idx
+     * @return
+     */
+    @Override
+    public RecordRule removeItem(int idx) {
+        RecordRule old = super.removeItem(idx);
+        removeRecords(old);
+        return old;
+    }
+
+    /**
+     *
+     * @param c
+     */
+    @Override
+    public void removeItems(Collection<? extends RecordRule> c) {
+        super.removeItems(c);
+        c.forEach(this::removeRecords);
+    }
+
+    /**
+     *
+     * @param idx
+     * @param item
+     */
+    @Override
+    public void setItem(int idx, RecordRule item) {
+        if (item == null) {
+            return;
+        }
+        RecordRule old = getItem(idx);
+        removeRecords(old);
+        item.resetExpansion();
+        super.setItem(idx, item);
+    }
+
+    /**
+     * Pending records of rules removed by a batch are removed too, unless a
+     * rule of the same id takes their place. Rules changed by a batch are
+     * expanded again.
+     *
+     * @param id
+     * @param obj
+     */
+    @Override
+    protected void itemsChanged(int id, Object obj) {
+        if (id != EVT_ITEMS_BATCH) {
+            return;
+        }
+        ItemChanges<?> changes = (ItemChanges<?>) obj;
+        Set<String> ids = new HashSet<>();
+        forEach(rule -> ids.add(rule.getRuleId()));
+        for (Object item : changes.getRemoved()) {
+            RecordRule rule = (RecordRule) item;
+            if (!ids.contains(rule.getRuleId())) {
+                removeRecords(rule);
+            }
+        }
+        for (Object item : changes.getUpdated()) {
+            RecordRule rule = (RecordRule) item;
+            removeRecords(rule);
+            rule.resetExpansion();
+        }
+    }
+
+    /**
+     *
+     * @param re
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onResponseEvent(ResponseEvent re) {
+        if (re.getSource() instanceof RecordRule rule && re.getId() == RecordRule.EVT_RULE_EXPANDED) {
+            // rules are expanded on the scheduler thread
+            List<Record> records = (List<Record>) re.getObject();
+            ResponseList.invokeLater(() -> addRecords(rule, records));
+        }
+        fireResponseEvent(re);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Recording rules of the selected station.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class RuleTableModel extends ResponseTableModel<RecordRule> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     *
+     */
+    public final static int COLUMN_TITLE = 0;
+
+    /**
+     *
+     */
+    public final static int COLUMN_REPEAT = 1;
+
+    /**
+     *
+     */
+    public final static int COLUMN_TIME = 2;
+
+    /**
+     *
+     */
+    public final static int COLUMN_PRIORITY = 3;
+
+    /**
+     *
+     */
+    public final static int COLUMN_NEXT = 4;
+
+    private final static DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private final static DateTimeFormatter NEXT_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
+
+    private final transient RadioRec radioRec = RadioRec.getInstance();
+
+    private transient RuleDirector ruleDirector;
+
+    private final String[] columnNames = {
+        radioRec.currentBundle.getString("Table.ColumnName.Title"),
+        radioRec.currentBundle.getString("Table.ColumnName.Repeat"),
+        radioRec.currentBundle.getString("Table.ColumnName.Time"),
+        radioRec.currentBundle.getString("Table.ColumnName.Priority"),
+        radioRec.currentBundle.getString("Table.ColumnName.Next")};
+
+    /**
+     *
+     */
+    public RuleTableModel() {
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     *
+     * @param column
+     * @return
+     */
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     *
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    /**
+     *
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        RecordRule rule = getItem(rowIndex);
+        if (rule == null) {
+            return "";
+        }
+        ZoneId zone = radioRec.getTimeZone();
+        switch (columnIndex) {
+            case COLUMN_TITLE -> {
+                return rule.props.getProperty(RecordRule.PROP_TITLE, "");
+            }
+            case COLUMN_REPEAT -> {
+                return getRepeatText(rule);
+            }
+            case COLUMN_TIME -> {
+                return TIME_FORMAT.format(rule.getTimeProperty(RecordRule.PROP_TIME_START).withZoneSameInstant(zone))
+                        + " - " + TIME_FORMAT.format(rule.getTimeProperty(RecordRule.PROP_TIME_FINISH).withZoneSameInstant(zone));
+            }
+            case COLUMN_PRIORITY -> {
+                return rule.props.getProperty(RecordRule.PROP_PRIORITY, "0");
+            }
+            case COLUMN_NEXT -> {
+                ZonedDateTime next = rule.getNextOccurrence(ZonedDateTime.now(zone), Long.MIN_VALUE);
+                return next != null ? NEXT_FORMAT.format(next.withZoneSameInstant(zone)) : "";
+            }
+            default -> {
+                return "";
+            }
+        }
+    }
+
+    private String getRepeatText(RecordRule rule) {
+        String repeat = rule.props.getProperty(RecordRule.PROP_RULE_REPEAT, RecordRule.REPEAT_NONE);
+        return switch (repeat) {
+            case RecordRule.REPEAT_DAILY ->
+                radioRec.currentBundle.getString("ComboBox.Item.Repeat.Daily");
+            case RecordRule.REPEAT_WEEKDAYS ->
+                radioRec.currentBundle.getString("ComboBox.Item.Repeat.Weekdays");
+            case RecordRule.REPEAT_WEEKLY ->
+                radioRec.currentBundle.getString("ComboBox.Item.Repeat.Weekly");
+            case RecordRule.REPEAT_CUSTOM ->
+                radioRec.currentBundle.getString("ComboBox.Item.Repeat.Custom")
+                + " (" + rule.props.getProperty(RecordRule.PROP_RULE_DAYS, "") + ")";
+            default ->
+                radioRec.currentBundle.getString("ComboBox.Item.Repeat.None");
+        };
+    }
+
+    /**
+     *
+     * @return
+     */
+    public RuleDirector getRuleDirector() {
+        return ruleDirector;
+    }
+
+    /**
+     *
+     * @param ruleDirector
+     */
+    public void setRuleDirector(RuleDirector ruleDirector) {
+        this.ruleDirector = ruleDirector;
+        setList(ruleDirector);
+    }
+
+}
@@ -70,6 +70,7 @@ public class SettingsDialog extends javax.swing.JDialog {
         subfoldersFormatTextField.setText(prefs.get(RadioRec.PROP_RECORDS_SUBFOLDERS_FORMAT, RadioRec.DEFAULT_RECORDS_SUBFOLDERS_FORMAT));
         fileNameFormatTextField.setText(prefs.get(RadioRec.PROP_RECORDS_FILENAME_FORMAT, RadioRec.DEFAULT_RECORDS_FILENAME_FORMAT));
         recordTimeAppendTextField.setText(prefs.get(RadioRec.PROP_RECORDS_TIME_APPEND, RadioRec.DEFAULT_RECORDS_TIME_APPEND));
+        bandwidthBudgetTextField.setText(prefs.get(RadioRec.PROP_RECORDS_BANDWIDTH_BUDGET, RadioRec.DEFAULT_RECORDS_BANDWIDTH_BUDGET));
         tempDirTextField.setText(prefs.get(RadioRec.PROP_TEMP_DIR, RadioRec.DEFAULT_TEMP_DIR));
         // Get the current locale (either from prefs or system default)
         Locale currentLocale = Locale.getDefault();
@@ -130,6 +131,7 @@ public class SettingsDialog extends javax.swing.JDialog {
         prefs.put(RadioRec.PROP_RECORDS_SUBFOLDERS_FORMAT, subfoldersFormatTextField.getText());
         prefs.put(RadioRec.PROP_RECORDS_FILENAME_FORMAT, fileNameFormatTextField.getText());
         prefs.put(RadioRec.PROP_RECORDS_TIME_APPEND, recordTimeAppendTextField.getText());
+        prefs.put(RadioRec.PROP_RECORDS_BANDWIDTH_BUDGET, bandwidthBudgetTextField.getText());
         prefs.put(RadioRec.PROP_TEMP_DIR, tempDirTextField.getText());
         // Get selected locale from the languageComboBox
         String selectedLocaleDisplayName = (String) languageComboBox.getSelectedItem();
@@ -227,6 +229,8 @@ public class SettingsDialog extends javax.swing.JDialog {
         timeFormatTextField = new javax.swing.JTextField();
         jLabel11 = new javax.swing.JLabel();
         recordTimeAppendTextField = new javax.swing.JTextField();
+        jLabel14 = new javax.swing.JLabel();
+        bandwidthBudgetTextField = new javax.swing.JTextField();
         browserPanel = new javax.swing.JPanel();
         jLabel8 = new javax.swing.JLabel();
         webBrowserPathTextField = new javax.swing.JTextField();
@@ -412,6 +416,8 @@ public class SettingsDialog extends javax.swing.JDialog {
 
         jLabel11.setText(bundle.getString("SettingsDialog.jLabel11.text")); // NOI18N
 
+        jLabel14.setText(bundle.getString("SettingsDialog.jLabel14.text")); // NOI18N
+
         javax.swing.GroupLayout timePanelLayout = new javax.swing.GroupLayout(timePanel);
         timePanel.setLayout(timePanelLayout);
         timePanelLayout.setHorizontalGroup(
@@ -437,7 +443,9 @@ public class SettingsDialog extends javax.swing.JDialog {
                                 .addComponent(timeZoneComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, 188, javax.swing.GroupLayout.PREFERRED_SIZE)
                                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                                 .addComponent(detectTimeZoneButton)))
-                        .addGap(0, 0, Short.MAX_VALUE))))
+                        .addGap(0, 0, Short.MAX_VALUE))
+                    .addComponent(jLabel14)
+                    .addComponent(bandwidthBudgetTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 214, javax.swing.GroupLayout.PREFERRED_SIZE)))
         );
         timePanelLayout.setVerticalGroup(
             timePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
@@ -457,7 +465,11 @@ public class SettingsDialog extends javax.swing.JDialog {
                             .addComponent(jLabel7))
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(recordTimeAppendTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
-                .addContainerGap(171, Short.MAX_VALUE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jLabel14)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(bandwidthBudgetTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addContainerGap(117, Short.MAX_VALUE))
         );
 
         cardsPanel.add(timePanel, "TimeCard");
@@ -695,6 +707,7 @@ public class SettingsDialog extends javax.swing.JDialog {
     }//GEN-LAST:event_jToggleButton4ActionPerformed
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JTextField bandwidthBudgetTextField;
     private javax.swing.JPanel appearancePanel;
     private javax.swing.JPanel browserPanel;
     private javax.swing.ButtonGroup buttonGroup1;
@@ -708,6 +721,7 @@ public class SettingsDialog extends javax.swing.JDialog {
     private javax.swing.JLabel jLabel11;
     private javax.swing.JLabel jLabel12;
     private javax.swing.JLabel jLabel13;
+    private javax.swing.JLabel jLabel14;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel4;
@@ -27,6 +27,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingWorker;
@@ -68,6 +69,11 @@ public class Station extends ResponseNode
      */
     public final static String PROP_STATION_LINK = "station-link";
 
+    /**
+     * Further stream links of the station separated by white space
+     */
+    public final static String PROP_STATION_MIRRORS = "station-mirrors";
+
     /**
      *
      */
@@ -173,11 +179,27 @@ public class Station extends ResponseNode
      */
     public final RecordDirector recordDirector;
 
+    /**
+     *
+     */
+    public final RuleDirector ruleDirector;
+
+    /**
+     * Live counters of the records.
+     */
+    public final RecordStats recordStats = new RecordStats();
+
     /**
      *
      */
     public File stationFile;
 
+    // loaded for a report only, nothing is saved
+    private boolean readOnly;
+
+    // the lists are filled from the file, which is not saved meanwhile
+    private boolean loading;
+
     /**
      *
      */
@@ -195,13 +217,23 @@ public class Station extends ResponseNode
 
     private Player player;
 
+    // properties kept in slots
+    private final static NodeProps.Schema SCHEMA = new NodeProps.Schema(
+            new String[]{PROP_STATION_NAME, PROP_STATION_LINK, PROP_STATION_MIRRORS,
+                PROP_PROGRAM_LINK, PROP_PROGRAM_ROOT_XPATH, PROP_PROGRAM_TITLE_CSS_QUERY,
+                PROP_PROGRAM_COMMENT_CSS_QUERY, PROP_PROGRAM_START_TIME_ATTR,
+                PROP_PROGRAM_START_TIME_FORMAT, PROP_PROGRAM_FINISH_TIME_ATTR,
+                PROP_PROGRAM_FINISH_TIME_FORMAT, PROP_PROGRAM_TIME_ZONE_ID, PROP_RECORD_ADDING});
+
     /**
      *
      * @param name
      */
     public Station(String name) {
+        super(SCHEMA);
         props.setProperty(PROP_STATION_NAME, !name.equals("") ? name : DEFAULT_STATION_NAME);
         props.setProperty(PROP_STATION_LINK, "");
+        props.setProperty(PROP_STATION_MIRRORS, "");
         props.setProperty(PROP_PROGRAM_LINK, "");
         props.setProperty(PROP_PROGRAM_ROOT_XPATH, "");
         props.setProperty(PROP_PROGRAM_TITLE_CSS_QUERY, "");
@@ -214,6 +246,7 @@ public class Station extends ResponseNode
         props.setProperty(PROP_RECORD_ADDING, DEFAULT_RECORD_ADDING);
         programDirector = new ProgramDirector();
         recordDirector = new RecordDirector();
+        ruleDirector = new RuleDirector(this);
         initDirectors();
     }
 
@@ -222,13 +255,31 @@ public class Station extends ResponseNode
      * @param file
      */
     public Station(File file) {
+        this(file, false);
+    }
+
+    /**
+     *
+     * @param file
+     * @param readOnly the file is never written, e.g. for a report
+     */
+    public Station(File file, boolean readOnly) {
         this(file.getName());
-        loadFromFile(file);
+        this.readOnly = readOnly;
+        loading = true;
+        try {
+            loadFromFile(file);
+        } finally {
+            loading = false;
+        }
     }
 
     private void initDirectors() {
         programDirector.addResponseListener(this);
+        // counted before the station passes the events on
+        recordDirector.addResponseListener(recordStats);
         recordDirector.addResponseListener(this);
+        ruleDirector.addResponseListener(this);
     }
 
     private void loadFromFile(File file) {
@@ -266,7 +317,7 @@ public class Station extends ResponseNode
             }
         }
 
-        programDirector.clearItems();
+        ArrayList<Program> programs = new ArrayList<>();
         elements = stationElement.getElementsByTag("progs").get(0).getElementsByTag("prog");
         for (Element element : elements) {
             Attributes attrs = element.attributes();
@@ -276,10 +327,11 @@ public class Station extends ResponseNode
                 String propVal = attr.getValue();
                 program.props.setProperty(propName, propVal);
             }
-            programDirector.addItem(program);
+            programs.add(program);
         }
+        programDirector.replaceItems(programs);
 
-        recordDirector.clearItems();
+        ArrayList<Record> records = new ArrayList<>();
         elements = stationElement.getElementsByTag("recs").get(0).getElementsByTag("rec");
         for (Element element : elements) {
             Attributes attrs = element.attributes();
@@ -289,8 +341,27 @@ public class Station extends ResponseNode
                 String propVal = attr.getValue();
                 record.props.setProperty(propName, propVal);
             }
-            recordDirector.addItem(record);
+            records.add(record);
         }
+        recordDirector.replaceItems(records);
+
+        ArrayList<RecordRule> rules = new ArrayList<>();
+        // older files have no rules
+        Elements rulesElements = stationElement.getElementsByTag("rules");
+        if (!rulesElements.isEmpty()) {
+            elements = rulesElements.get(0).getElementsByTag("rule");
+            for (Element element : elements) {
+                Attributes attrs = element.attributes();
+                RecordRule rule = new RecordRule();
+                for (Attribute attr : attrs) {
+                    String propName = attr.getKey();
+                    String propVal = attr.getValue();
+                    rule.props.setProperty(propName, propVal);
+                }
+                rules.add(rule);
+            }
+        }
+        ruleDirector.replaceItems(rules);
     }
 
     /**
@@ -336,6 +407,10 @@ public class Station extends ResponseNode
         stationElement.appendChild(list);
 
         for (Record record : recordDirector) {
+            if (record.props.containsKey(RecordRule.PROP_RULE_ID)) {
+                // created again from the rule
+                continue;
+            }
             item = document.createElement("rec");
             for (Object key : record.props.keySet()) {
                 item.attr((String) key, record.props.getProperty((String) key));
@@ -343,6 +418,17 @@ public class Station extends ResponseNode
             list.appendChild(item);
         }
 
+        list = document.createElement("rules");
+        stationElement.appendChild(list);
+
+        for (RecordRule rule : ruleDirector) {
+            item = document.createElement("rule");
+            for (Object key : rule.props.keySet()) {
+                item.attr((String) key, rule.props.getProperty((String) key));
+            }
+            list.appendChild(item);
+        }
+
         return document.toString();
     }
 
@@ -352,6 +438,10 @@ public class Station extends ResponseNode
      */
     public void saveToFile(File file) {
 
+        if (readOnly) {
+            return;
+        }
+
         String xml = getStationXML();
 
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
@@ -382,6 +472,14 @@ public class Station extends ResponseNode
         saveToFile(stationFile);
     }
 
+    /**
+     *
+     * @return
+     */
+    public String getStationMirrors() {
+        return props.getProperty(PROP_STATION_MIRRORS, "").trim();
+    }
+
     /**
      *
      * @return
@@ -497,12 +595,7 @@ public class Station extends ResponseNode
      * @return
      */
     public boolean isRecording() {
-        for (Record record : recordDirector) {
-            if (record.isStatus(Record.RECORD_RUNNING)) {
-                return true;
-            }
-        }
-        return false;
+        return recordStats.getCount(Record.RECORD_RUNNING) > 0;
     }
 
     /**
@@ -521,7 +614,7 @@ public class Station extends ResponseNode
      */
     @Override
     public void onResponseEvent(ResponseEvent re) {
-        if (re.getSource() instanceof RecordDirector) {
+        if ((re.getSource() instanceof RecordDirector || re.getSource() instanceof RuleDirector) && !loading) {
             saveToFile();
         }
         fireResponseEvent(re);
@@ -533,8 +626,7 @@ public class Station extends ResponseNode
      */
     @Override
     public void update(ZonedDateTime time) {
-        programDirector.update(time);
-        recordDirector.update(time);
+        // the scheduler updates the programs and records themselves
     }
 
 }
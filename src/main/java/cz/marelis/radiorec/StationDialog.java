@@ -58,6 +58,7 @@ public class StationDialog extends javax.swing.JDialog {
         // set values
         stationNameTextField.setText(station.props.getProperty(Station.PROP_STATION_NAME));
         stationLinkTextField.setText(station.props.getProperty(Station.PROP_STATION_LINK));
+        stationMirrorsTextField.setText(station.props.getProperty(Station.PROP_STATION_MIRRORS, ""));
         recordManuallyRadioButton.setActionCommand(Station.RECORD_ADDING_MANUALLY);
         recordStreamRadioButton.setActionCommand(Station.RECORD_ADDING_STREAM);
         recordProgramRadioButton.setActionCommand(Station.RECORD_ADDING_PROGRAM);
@@ -76,6 +77,7 @@ public class StationDialog extends javax.swing.JDialog {
     private void getDialog() {
         station.props.setProperty(Station.PROP_STATION_NAME, stationNameTextField.getText());
         station.props.setProperty(Station.PROP_STATION_LINK, stationLinkTextField.getText());
+        station.props.setProperty(Station.PROP_STATION_MIRRORS, stationMirrorsTextField.getText().trim());
         station.props.setProperty(Station.PROP_RECORD_ADDING, recordButtonGroup.getSelection().getActionCommand());
     }
 
@@ -94,6 +96,8 @@ public class StationDialog extends javax.swing.JDialog {
         stationNameTextField = new javax.swing.JTextField();
         jLabel2 = new javax.swing.JLabel();
         stationLinkTextField = new javax.swing.JTextField();
+        jLabel3 = new javax.swing.JLabel();
+        stationMirrorsTextField = new javax.swing.JTextField();
         jLabel6 = new javax.swing.JLabel();
         recordManuallyRadioButton = new javax.swing.JRadioButton();
         recordStreamRadioButton = new javax.swing.JRadioButton();
@@ -113,6 +117,8 @@ public class StationDialog extends javax.swing.JDialog {
 
         jLabel2.setText(bundle.getString("StationDialog.jLabel2.text")); // NOI18N
 
+        jLabel3.setText(bundle.getString("StationDialog.jLabel3.text")); // NOI18N
+
         jLabel6.setText(bundle.getString("StationDialog.jLabel6.text")); // NOI18N
 
         recordButtonGroup.add(recordManuallyRadioButton);
@@ -134,11 +140,13 @@ public class StationDialog extends javax.swing.JDialog {
                 .addContainerGap()
                 .addGroup(contentPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                     .addComponent(stationLinkTextField)
+                    .addComponent(stationMirrorsTextField)
                     .addComponent(stationNameTextField)
                     .addGroup(contentPanelLayout.createSequentialGroup()
                         .addGroup(contentPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(jLabel1)
                             .addComponent(jLabel2)
+                            .addComponent(jLabel3)
                             .addComponent(jLabel6)
                             .addGroup(contentPanelLayout.createSequentialGroup()
                                 .addGap(6, 6, 6)
@@ -161,6 +169,10 @@ public class StationDialog extends javax.swing.JDialog {
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(stationLinkTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jLabel3)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(stationMirrorsTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jLabel6)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(recordManuallyRadioButton)
@@ -277,6 +289,7 @@ public class StationDialog extends javax.swing.JDialog {
     private javax.swing.JPanel contentPanel;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
+    private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel6;
     private javax.swing.JButton okButton;
     private javax.swing.JButton programSettingsButton;
@@ -285,6 +298,7 @@ public class StationDialog extends javax.swing.JDialog {
     private javax.swing.JRadioButton recordProgramRadioButton;
     private javax.swing.JRadioButton recordStreamRadioButton;
     private javax.swing.JTextField stationLinkTextField;
+    private javax.swing.JTextField stationMirrorsTextField;
     private javax.swing.JTextField stationNameTextField;
     // End of variables declaration//GEN-END:variables
 }
@@ -16,6 +16,8 @@
 package cz.marelis.radiorec;
 
 import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  *
@@ -23,19 +25,18 @@ import java.time.ZonedDateTime;
  */
 public class StationDirector extends ResponseList<Station> {
 
+    // station last started to play, kept from the status events
+    private volatile Station playing;
+
     /**
+     * Stations are told apart by their files.
      *
      * @param station
      * @return
      */
     @Override
-    public boolean containsItem(Station station) {
-        for (Station item : this) {
-            if (item.stationFile.equals(station.stationFile)) {
-                return true;
-            }
-        }
-        return false;
+    protected Object getItemKey(Station station) {
+        return station.stationFile;
     }
 
     /**
@@ -43,23 +44,56 @@ public class StationDirector extends ResponseList<Station> {
      * @return
      */
     public int getPlayingItem() {
-        int size = itemsCount();
-        for (int idx = 0; idx < size; idx++) {
-            Station station = getItem(idx);
-            if (station.isStatus(Station.PLAYBACK_RUNS)) {
-                return idx;
+        Station station = getPlayingStation();
+        return station != null ? indexOfItem(station) : -1;
+    }
+
+    /**
+     *
+     * @return station playing now, or null
+     */
+    public Station getPlayingStation() {
+        Station station = playing;
+        return station != null && station.isStatus(Station.PLAYBACK_RUNS) ? station : null;
+    }
+
+    /**
+     * What is on at the time on all stations.
+     *
+     * @param time
+     * @return program of each station running at the time, in the order of
+     * the stations
+     */
+    public Map<Station, Program> getProgramsAt(ZonedDateTime time) {
+        long seconds = time.toEpochSecond();
+        Map<Station, Program> result = new LinkedHashMap<>();
+        for (Station station : this) {
+            Program program = station.programDirector.getTimeIndex().getProgramAt(seconds);
+            if (program != null) {
+                result.put(station, program);
             }
         }
-        return -1;
+        return result;
     }
 
     /**
      *
-     * @param time
+     * @param re
      */
     @Override
-    public void update(ZonedDateTime time) {
-        forEach(station -> station.update(time));
+    public void onResponseEvent(ResponseEvent re) {
+        if (re.getSource() instanceof Station && re.getId() == Station.EVT_SAVE_TO_FILE) {
+            // the file of the station may have changed
+            reindexKeys();
+        }
+        if (re.getSource() instanceof Station station && re.getId() == ResponseNode.EVT_STATUS_CHANGED) {
+            if (station.isStatus(Station.PLAYBACK_RUNS)) {
+                playing = station;
+            } else if (playing == station) {
+                playing = null;
+            }
+        }
+        super.onResponseEvent(re);
     }
 
 }
@@ -15,13 +15,11 @@
  */
 package cz.marelis.radiorec;
 
-import javax.swing.table.AbstractTableModel;
-
 /**
  *
  * @author Marek Liška <adlatus@marelis.cz>
  */
-public class StationTableModel extends AbstractTableModel {
+public class StationTableModel extends ResponseTableModel<Station> {
 
     private static final long serialVersionUID = 1L;
 
@@ -37,15 +35,6 @@ public class StationTableModel extends AbstractTableModel {
     public StationTableModel() {
     }
 
-    /**
-     *
-     * @return
-     */
-    @Override
-    public int getRowCount() {
-        return stationDirector != null ? stationDirector.itemsCount() : 0;
-    }
-
     /**
      *
      * @return
@@ -55,17 +44,6 @@ public class StationTableModel extends AbstractTableModel {
         return 1;
     }
 
-    /**
-     *
-     * @param rowIndex
-     * @param columnIndex
-     * @return
-     */
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        return stationDirector != null ? stationDirector.getItem(rowIndex) : null;
-    }
-
     /**
      *
      * @param rowIndex
@@ -111,7 +89,7 @@ public class StationTableModel extends AbstractTableModel {
      */
     public void setStationDirector(StationDirector stationDirector) {
         this.stationDirector = stationDirector;
-        this.fireTableDataChanged();
+        setList(stationDirector);
     }
 
 }
@@ -50,8 +50,9 @@ public class StationTableTransferHandler extends TransferHandler {
 		List<File> files = new ArrayList<>();
 		JTable table = (JTable) c;
 		int[] rows = table.getSelectedRows();
+		StationTableModel model = (StationTableModel) table.getModel();
 		for (int row : rows) {
-			Station station = (Station) RadioRec.getInstance().stationDirector.getItem(row);
+			Station station = model.getItem(table.convertRowIndexToModel(row));
 			files.add(station.stationFile);
 		}
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Planning of the records and rules of the station fixture.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class CapacityPlannerTest {
+
+    private final static ZoneId UTC = ZoneId.of("UTC");
+
+    // an hour before the first record of the fixture
+    private final static ZonedDateTime FROM = ZonedDateTime.of(2030, 1, 5, 9, 0, 0, 0, UTC);
+
+    @TempDir
+    Path dir;
+
+    private Station station;
+    private StationDirector stationDirector;
+
+    @BeforeEach
+    void loadFixture() throws IOException {
+        Path file = dir.resolve("rules.radiorec-station");
+        try (InputStream in = CapacityPlannerTest.class.getResourceAsStream("station/rules.radiorec-station")) {
+            Files.write(file, in.readAllBytes());
+        }
+        station = new Station(file.toFile(), true);
+        stationDirector = new StationDirector();
+        stationDirector.addItem(station);
+    }
+
+    private CapacityPlanner plan(ZonedDateTime to) {
+        return new CapacityPlanner(UTC, new RecordAdmission()).plan(stationDirector, FROM, to);
+    }
+
+    @Test
+    void rulesAreExpandedOverTheWindow() {
+        CapacityPlanner planner = plan(FROM.plus(CapacityPlanner.PLAN_WINDOW));
+        // a daily occurrence on every day of the week
+        assertEquals(7, planner.getOccurrences());
+        assertEquals(10, planner.getRecords().size());
+        // the occurrences are not added to the station
+        assertEquals(3, station.recordDirector.itemsCount());
+    }
+
+    @Test
+    void recordsAfterTheWindowAreIgnored() {
+        CapacityPlanner planner = plan(FROM.plusMinutes(105));
+        // R2 starts at 10:45, at the end of the window
+        assertEquals(1, planner.getOccurrences());
+        assertEquals(3, planner.getRecords().size());
+    }
+
+    @Test
+    void createdOccurrencesAreNotCountedTwice() {
+        Record created = new Record();
+        created.props.setProperty(RecordRule.PROP_RULE_ID, "abc");
+        created.setTimeProperty(Record.PROP_TIME_START, ZonedDateTime.of(2030, 1, 6, 10, 0, 0, 0, UTC));
+        created.setTimeProperty(Record.PROP_TIME_FINISH, ZonedDateTime.of(2030, 1, 6, 10, 30, 0, 0, UTC));
+        station.recordDirector.addItem(created);
+        CapacityPlanner planner = plan(FROM.plus(CapacityPlanner.PLAN_WINDOW));
+        assertEquals(6, planner.getOccurrences());
+        assertEquals(10, planner.getRecords().size());
+    }
+
+}
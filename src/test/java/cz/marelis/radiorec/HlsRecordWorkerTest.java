@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recording of the playlists in the hls fixtures from a local server.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class HlsRecordWorkerTest {
+
+    // first segment of the live playlist
+    private final static int LIVE_FIRST = 20;
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String base;
+    private final Set<Integer> requested = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] body;
+        if (path.equals("/master.m3u8")) {
+            body = fixture("master.m3u8");
+        } else if (path.endsWith("/media.m3u8")) {
+            body = fixture("vod.m3u8");
+        } else if (path.equals("/live.m3u8")) {
+            body = fixture("live.m3u8");
+        } else if (path.endsWith(".aac")) {
+            int sequence = Integer.parseInt(path.substring(path.lastIndexOf("seg") + 3, path.length() - 4));
+            requested.add(sequence);
+            try {
+                if (sequence >= LIVE_FIRST) {
+                    // live segments wait until the recording was finished
+                    release.await(10, TimeUnit.SECONDS);
+                } else {
+                    // segments complete out of order
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(5, 120));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            body = segment(sequence);
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = HlsRecordWorkerTest.class.getResourceAsStream("hls/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] payload(int sequence) {
+        return String.format("SEG%05d|", sequence).repeat(100).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // ID3 tag with the timestamp of the segment followed by the audio
+    private static byte[] segment(int sequence) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 0, 16});
+        out.writeBytes(new byte[16]);
+        out.writeBytes(payload(sequence));
+        return out.toByteArray();
+    }
+
+    private static byte[] payloads(int first, int last) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int sequence = first; sequence <= last; sequence++) {
+            out.writeBytes(payload(sequence));
+        }
+        return out.toByteArray();
+    }
+
+    private Record newRecord(String link) {
+        Record record = new Record();
+        record.props.setProperty(Record.PROP_URL, link);
+        record.props.setProperty(Record.PROP_FILE_DIR, dir.toString());
+        record.props.setProperty(Record.PROP_FILE_NAME, "rec");
+        return record;
+    }
+
+    private static void awaitDone(Record record) throws InterruptedException {
+        long until = System.currentTimeMillis() + 20_000;
+        while (!record.isStatus(Record.RECORD_DONE) && System.currentTimeMillis() < until) {
+            Thread.sleep(20);
+        }
+        assertTrue(record.isStatus(Record.RECORD_DONE), "recording not done");
+    }
+
+    @Test
+    void bandwidthIsNotTakenFromAverageBandwidth() throws IOException {
+        String text = new String(fixture("master.m3u8"), StandardCharsets.UTF_8);
+        HlsRecordWorker.Playlist playlist = HlsRecordWorker.parsePlaylist(base + "/master.m3u8", text);
+        assertEquals(List.of(base + "/low/media.m3u8", base + "/high/media.m3u8"), playlist.variants);
+        assertEquals(List.of(64000, 128000), playlist.bandwidths);
+    }
+
+    @Test
+    void attributesAreSplitOutsideOfQuotes() {
+        String list = "CODECS=\"mp4a.40.2,BANDWIDTH=1\",AVERAGE-BANDWIDTH=2, BANDWIDTH=3";
+        assertEquals(3, HlsRecordWorker.getAttributeInt(list, "BANDWIDTH"));
+        assertEquals(2, HlsRecordWorker.getAttributeInt(list, "AVERAGE-BANDWIDTH"));
+        assertEquals(0, HlsRecordWorker.getAttributeInt(list, "RESOLUTION"));
+    }
+
+    @Test
+    void recordsVariantOfHighestBandwidthInOrder() throws Exception {
+        Record record = newRecord(base + "/master.m3u8");
+        HlsRecordWorker worker = new HlsRecordWorker(record, dir.resolve("rec.hls").toFile());
+        worker.execute();
+        awaitDone(record);
+        assertEquals("128", record.props.getProperty(Record.PROP_BITRATE));
+        assertArrayEquals(payloads(10, 15), Files.readAllBytes(dir.resolve("rec.aac")));
+        assertEquals(0, record.getGapsRecorded());
+    }
+
+    @Test
+    void finishKeepsSegmentsAlreadyFetched() throws Exception {
+        Record record = newRecord(base + "/live.m3u8");
+        File temp = dir.resolve("rec.hls").toFile();
+        HlsRecordWorker worker = new HlsRecordWorker(record, temp);
+        worker.execute();
+        // the live edge, the last three segments, is fetched at once
+        long until = System.currentTimeMillis() + 10_000;
+        while (requested.size() < 3 && System.currentTimeMillis() < until) {
+            Thread.sleep(20);
+        }
+        assertEquals(Set.of(22, 23, 24), requested);
+        worker.finish();
+        release.countDown();
+        awaitDone(record);
+        assertArrayEquals(payloads(22, 24), Files.readAllBytes(dir.resolve("rec.aac")));
+    }
+
+}
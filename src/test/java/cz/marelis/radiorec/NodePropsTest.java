@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Properties of the nodes kept in the slots of a schema.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class NodePropsTest {
+
+    private final static NodeProps.Schema SCHEMA = new NodeProps.Schema(
+            new String[]{"title", "time-start", "comment"}, "time-start");
+
+    private final static int PROGRAMS = 100_000;
+
+    @Test
+    void knownAndOtherPropertiesAreKept() {
+        NodeProps props = new NodeProps(SCHEMA);
+        assertNull(props.getProperty("title"));
+        assertEquals("-", props.getProperty("title", "-"));
+        props.setProperty("other", "x");
+        props.setProperty("comment", "c");
+        props.setProperty("title", "t");
+        assertEquals("t", props.getProperty("title"));
+        assertEquals("x", props.getProperty("other"));
+        assertTrue(props.containsKey("other"));
+        assertFalse(props.containsKey("time-start"));
+        // the known ones in the order of the schema first
+        assertEquals(List.of("title", "comment", "other"), new ArrayList<>(props.keySet()));
+        props.clear();
+        assertTrue(props.keySet().isEmpty());
+    }
+
+    @Test
+    void timesAreKeptByTheirMilliseconds() {
+        NodeProps props = new NodeProps(SCHEMA);
+        props.setProperty("time-start", "20301019103000");
+        long millis = ZonedDateTime.of(2030, 10, 19, 10, 30, 0, 0, ZoneId.of("UTC")).toInstant().toEpochMilli();
+        assertEquals(millis, props.getTimeMillis("time-start"));
+        assertEquals("20301019103000", props.getProperty("time-start"));
+        NodeProps other = new NodeProps(SCHEMA);
+        other.setTimeMillis("time-start", millis);
+        assertEquals(props, other);
+        assertEquals(props.hashCode(), other.hashCode());
+    }
+
+    @Test
+    void readingATimeIsNotAChange() {
+        NodeProps props = new NodeProps(SCHEMA);
+        props.setProperty("time-start", "20301019103000");
+        int count = props.getModCount();
+        props.getTimeMillis("time-start");
+        assertEquals(count, props.getModCount());
+        props.setProperty("time-start", "20301019103001");
+        assertEquals("20301019103001", props.getProperty("time-start"));
+        assertEquals(count + 1, props.getModCount());
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    void programsTakeLittleHeap() throws Exception {
+        ZonedDateTime time = ZonedDateTime.of(2030, 10, 19, 0, 0, 0, 0, ZoneId.of("UTC"));
+        long before = usedMemory();
+        ProgramDirector director = new ProgramDirector();
+        List<Program> programs = new ArrayList<>(PROGRAMS);
+        for (int i = 0; i < PROGRAMS; i++) {
+            Program program = new Program();
+            program.setTimeProperty(Program.PROP_TIME_START, time.plusMinutes(30L * i));
+            program.setTimeProperty(Program.PROP_TIME_FINISH, time.plusMinutes(30L * i + 30));
+            program.props.setProperty(Program.PROP_TITLE, "Program title number " + i);
+            program.props.setProperty(Program.PROP_COMMENT, "A longer comment describing the program number " + i + " in a sentence.");
+            program.getTimeMillis(Program.PROP_TIME_START);
+            program.getTimeMillis(Program.PROP_TIME_FINISH);
+            programs.add(program);
+        }
+        director.addItems(programs);
+        long used = usedMemory() - before;
+        System.out.printf("%d programs: %.1f MB (%d B/program)%n", PROGRAMS, used / 1e6, used / PROGRAMS);
+        assertEquals(PROGRAMS, director.itemsCount());
+        // a Properties with an entry per property took over 1000 bytes
+        assertTrue(used / PROGRAMS < 700, used / PROGRAMS + " bytes per program");
+    }
+
+}
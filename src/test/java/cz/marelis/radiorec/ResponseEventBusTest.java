@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Merging and delivery of the events of a record list through the bus. The
+ * deliveries wait in a queue until the test runs them.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ResponseEventBusTest {
+
+    private final static int RECORDS = 20_000;
+    private final static int ROUNDS = 100;
+    // rounds of changes between two deliveries
+    private final static int WINDOW = 10;
+
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final List<ResponseEvent> delivered = new ArrayList<>();
+    private boolean keep = true;
+    private final List<Record> records = new ArrayList<>();
+    private RecordDirector list;
+    private ResponseEventBus bus;
+
+    @BeforeEach
+    void createList() {
+        list = new RecordDirector();
+        for (int i = 0; i < RECORDS; i++) {
+            records.add(new Record());
+        }
+        list.addItems(records);
+        bus = new ResponseEventBus(queue::add);
+        bus.addResponseListener(new ResponseListener() {
+            @Override
+            public void onResponseEvent(ResponseEvent re) {
+                onResponseEvents(List.of(re));
+            }
+
+            @Override
+            public void onResponseEvents(List<ResponseEvent> batch) {
+                if (keep) {
+                    delivered.addAll(batch);
+                }
+            }
+        });
+        list.addResponseListener(bus);
+    }
+
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+    }
+
+    // 100 progress changes per record, delivered every 10 rounds
+    private void changeProgress() {
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (Record record : records) {
+                record.setProgress(round);
+            }
+            if (round % WINDOW == 0) {
+                dispatch();
+            }
+        }
+    }
+
+    @Test
+    void repeatedEventsAreMergedPerSourceAndId() {
+        changeProgress();
+        assertEquals((long) RECORDS * ROUNDS, bus.getReceivedCount());
+        assertEquals((long) RECORDS * ROUNDS / WINDOW, bus.getDeliveredCount());
+        assertEquals(RECORDS * ROUNDS / WINDOW, delivered.size());
+        for (ResponseEvent re : delivered) {
+            assertEquals(ResponseNode.EVT_PROGRESS_CHANGED, re.getId());
+        }
+    }
+
+    @Test
+    void itemEventsAreAllKeptInOrder() {
+        Record first = new Record();
+        Record second = new Record();
+        list.addItem(first);
+        list.addItem(second);
+        list.removeItem(first);
+        dispatch();
+        assertEquals(3, delivered.size());
+        assertEquals(ResponseList.EVT_ITEM_ADDED, delivered.get(0).getId());
+        assertSame(first, delivered.get(0).getObject());
+        assertEquals(ResponseList.EVT_ITEM_ADDED, delivered.get(1).getId());
+        assertSame(second, delivered.get(1).getObject());
+        assertEquals(ResponseList.EVT_ITEM_REMOVED, delivered.get(2).getId());
+    }
+
+    @Test
+    void mergingAllocatesNothingPerEvent() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // the delivered events are not kept, only the bus is measured
+        keep = false;
+        // the first runs only warm up
+        for (int i = 0; i < 3; i++) {
+            changeProgress();
+        }
+        long received = bus.getReceivedCount();
+        long deliveredCount = bus.getDeliveredCount();
+        long allocated = mx.getCurrentThreadAllocatedBytes();
+        long time = System.nanoTime();
+        changeProgress();
+        time = System.nanoTime() - time;
+        allocated = mx.getCurrentThreadAllocatedBytes() - allocated;
+        received = bus.getReceivedCount() - received;
+        deliveredCount = bus.getDeliveredCount() - deliveredCount;
+        double perEvent = (double) allocated / received;
+        System.out.printf("received %d delivered %d, %.1f M events/s, %.2f bytes/event%n",
+                received, deliveredCount, received / (time / 1e9) / 1e6, perEvent);
+        // a new event per change would take 32 bytes
+        assertTrue(perEvent < 1.0, "allocated " + perEvent + " bytes per event");
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Firing of the node events from many threads while the listeners change.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class ResponseNodeTest {
+
+    private final static int THREADS = 8;
+    private final static long RUN_MILLIS = 1000;
+    private final static long WARMUP_MILLIS = 300;
+    private final static long MAX_BLOCKED_MILLIS = 50;
+
+    private final static ThreadMXBean MX = ManagementFactory.getThreadMXBean();
+
+    private static void startAll(List<Thread> threads) {
+        threads.forEach(Thread::start);
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void listenersAddedConcurrentlyAreAllKept() throws Exception {
+        Record record = new Record();
+        LongAdder calls = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    record.addResponseListener(re -> calls.increment());
+                    // a listener only passing by
+                    ResponseListener passing = re -> {
+                    };
+                    record.addResponseListener(passing);
+                    record.removeResponseListener(passing);
+                }
+            }));
+        }
+        startAll(threads);
+        go.countDown();
+        joinAll(threads);
+        record.setStatus(Record.RECORD_RUNNING);
+        assertEquals(THREADS * 1000, calls.sum());
+    }
+
+    // all threads on the same eight records, a listener passes by now and then
+    private static void fireStatusChanges(List<Record> records, Random random, ResponseListener passing, long end) {
+        int k = 0;
+        while (System.currentTimeMillis() < end) {
+            Record record = records.get(random.nextInt(8));
+            record.setStatus(k++ & 7);
+            if ((k & 1023) == 0) {
+                record.addResponseListener(passing);
+                record.removeResponseListener(passing);
+            }
+        }
+    }
+
+    @Test
+    void firingStatusChangesNeverBlocks() throws Exception {
+        MX.setThreadContentionMonitoringEnabled(true);
+        RecordDirector list = new RecordDirector();
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            records.add(new Record());
+        }
+        list.addItems(records);
+        LongAdder events = new LongAdder();
+        list.addResponseListener(re -> events.increment());
+        AtomicLong blocked = new AtomicLong();
+        AtomicLong blockedMillis = new AtomicLong();
+        // the listener passing by and the code of the loop are linked before the measurement
+        ResponseListener passing = re -> {
+        };
+        CyclicBarrier measure = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                fireStatusChanges(records, random, passing, System.currentTimeMillis() + WARMUP_MILLIS);
+                try {
+                    measure.await();
+                } catch (InterruptedException | BrokenBarrierException ex) {
+                    return;
+                }
+                ThreadInfo before = MX.getThreadInfo(Thread.currentThread().getId());
+                fireStatusChanges(records, random, passing, System.currentTimeMillis() + RUN_MILLIS);
+                ThreadInfo after = MX.getThreadInfo(Thread.currentThread().getId());
+                blocked.addAndGet(after.getBlockedCount() - before.getBlockedCount());
+                blockedMillis.addAndGet(after.getBlockedTime() - before.getBlockedTime());
+            }));
+        }
+        startAll(threads);
+        joinAll(threads);
+        System.out.printf("%d threads on 8 records for %d ms: %d events, blocked %d times for %d ms%n",
+                THREADS, RUN_MILLIS, events.sum(), blocked.get(), blockedMillis.get());
+        assertTrue(events.sum() > 0);
+        // firing under the monitor of the node blocked for seconds
+        assertTrue(blockedMillis.get() < MAX_BLOCKED_MILLIS, "blocked for " + blockedMillis.get() + " ms");
+    }
+
+    @Test
+    void listenerTakingItsLockDoesNotDeadlock() throws Exception {
+        Record record = new Record();
+        Object lock = new Object();
+        // like a station saving to file under its own lock
+        record.addResponseListener(re -> {
+            synchronized (lock) {
+            }
+        });
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong fires = new AtomicLong();
+        AtomicLong registrations = new AtomicLong();
+        Thread firing = new Thread(() -> {
+            int k = 0;
+            while (!stop.get()) {
+                record.setStatus(k++ & 1);
+                fires.incrementAndGet();
+            }
+        });
+        Thread registering = new Thread(() -> {
+            while (!stop.get()) {
+                synchronized (lock) {
+                    ResponseListener listener = re -> {
+                    };
+                    record.addResponseListener(listener);
+                    record.removeResponseListener(listener);
+                }
+                registrations.incrementAndGet();
+            }
+        });
+        // a deadlocked thread does not keep the tests running
+        firing.setDaemon(true);
+        registering.setDaemon(true);
+        firing.start();
+        registering.start();
+        long[] deadlocked = null;
+        for (int i = 0; i < RUN_MILLIS / 100 && deadlocked == null; i++) {
+            Thread.sleep(100);
+            deadlocked = MX.findDeadlockedThreads();
+        }
+        stop.set(true);
+        System.out.printf("listener taking its lock for %d ms: %d fires, %d registrations%n",
+                RUN_MILLIS, fires.get(), registrations.get());
+        assertNull(deadlocked, "deadlocked");
+        firing.join(1000);
+        registering.join(1000);
+        assertTrue(fires.get() > 0 && registrations.get() > 0);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loading and saving of the station file in the station fixtures.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class StationTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private byte[] original;
+
+    @BeforeEach
+    void copyFixture() throws IOException {
+        file = dir.resolve("rules.radiorec-station");
+        try (InputStream in = StationTest.class.getResourceAsStream("station/rules.radiorec-station")) {
+            original = in.readAllBytes();
+        }
+        Files.write(file, original);
+    }
+
+    // lets the workers started by the events finish
+    private static void settle() throws Exception {
+        EventQueue.invokeAndWait(() -> {
+        });
+        Thread.sleep(500);
+        EventQueue.invokeAndWait(() -> {
+        });
+    }
+
+    private static void save(Station station) throws InterruptedException {
+        CountDownLatch saved = new CountDownLatch(1);
+        station.addResponseListener(re -> {
+            if (re.getSource() == station && re.getId() == Station.EVT_SAVE_TO_FILE) {
+                saved.countDown();
+            }
+        });
+        station.saveToFile();
+        assertTrue(saved.await(5, TimeUnit.SECONDS), "station not saved");
+    }
+
+    @Test
+    void loadingDoesNotWriteTheFile() throws Exception {
+        Station station = new Station(file.toFile());
+        settle();
+        assertEquals(3, station.recordDirector.itemsCount());
+        assertEquals(1, station.ruleDirector.itemsCount());
+        assertArrayEquals(original, Files.readAllBytes(file));
+    }
+
+    @Test
+    void readOnlyStationIsNeverSaved() throws Exception {
+        Station station = new Station(file.toFile(), true);
+        station.recordDirector.removeItem(0);
+        station.saveToFile();
+        settle();
+        assertArrayEquals(original, Files.readAllBytes(file));
+    }
+
+    @Test
+    void rulesAreKeptBySaving() throws Exception {
+        Station station = new Station(file.toFile());
+        save(station);
+        Station loaded = new Station(file.toFile());
+        assertEquals(1, loaded.ruleDirector.itemsCount());
+        assertEquals("abc", loaded.ruleDirector.getItem(0).getRuleId());
+        assertEquals(3, loaded.recordDirector.itemsCount());
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025 Marek Liška <adlatus@marelis.cz>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.marelis.radiorec;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ticks and sorts of programs and records read their cached times, no time
+ * text is parsed once a time was read.
+ *
+ * @author Marek Liška <adlatus@marelis.cz>
+ */
+public class TimeCacheTest {
+
+    private final static int PROGRAMS = 10_000;
+    private final static int RECORDS = 10_000;
+    private final static int TICKS = 50;
+    private final static int WARMUP_TICKS = 20;
+
+    private final static DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private final static ZonedDateTime NOW = ZonedDateTime.of(2030, 10, 19, 12, 0, 0, 0, ZoneId.of("UTC"));
+
+    private final List<Program> programs = new ArrayList<>();
+    private final List<Record> records = new ArrayList<>();
+
+    // times are set as text, as they are loaded from the station files
+    private void createNodes() {
+        // the programs run one after another around the ticks
+        ZonedDateTime first = NOW.minusMinutes(PROGRAMS / 2);
+        for (int i = 0; i < PROGRAMS; i++) {
+            Program program = new Program();
+            program.props.setProperty(Program.PROP_TIME_START, FORMAT.format(first.plusMinutes(i)));
+            program.props.setProperty(Program.PROP_TIME_FINISH, FORMAT.format(first.plusMinutes(i + 1)));
+            program.props.setProperty(Program.PROP_TITLE, "Program " + i);
+            programs.add(program);
+        }
+        // the records wait after the ticks, nothing is recorded
+        for (int i = 0; i < RECORDS; i++) {
+            Record record = new Record();
+            record.props.setProperty(Record.PROP_TIME_START, FORMAT.format(NOW.plusHours(1).plusMinutes(i)));
+            record.props.setProperty(Record.PROP_TIME_FINISH, FORMAT.format(NOW.plusHours(1).plusMinutes(i + 30)));
+            record.props.setProperty(Record.PROP_TITLE, "Record " + i);
+            records.add(record);
+        }
+    }
+
+    private void tick(ZonedDateTime time) {
+        for (Program program : programs) {
+            program.update(time);
+            program.getNextUpdate(time);
+        }
+        for (Record record : records) {
+            record.update(time);
+            record.getNextUpdate(time);
+        }
+    }
+
+    @Test
+    void ticksAndSortsParseNoTimes() {
+        createNodes();
+        long parses = NodeProps.getParseCount();
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick(NOW.plusSeconds(i));
+        }
+        // every time text was parsed once by the first tick
+        assertTrue(NodeProps.getParseCount() - parses >= 2L * (PROGRAMS + RECORDS));
+
+        parses = NodeProps.getParseCount();
+        long time = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            tick(NOW.plusSeconds(WARMUP_TICKS + i));
+        }
+        time = System.nanoTime() - time;
+
+        List<Program> shuffled = new ArrayList<>(programs);
+        Collections.shuffle(shuffled, new Random(1));
+        long sort = System.nanoTime();
+        Collections.sort(shuffled);
+        sort = System.nanoTime() - sort;
+
+        System.out.printf("%d programs and %d records: %.2f ms per tick, sort of the programs %.2f ms%n",
+                PROGRAMS, RECORDS, time / 1e6 / TICKS, sort / 1e6);
+        assertEquals(parses, NodeProps.getParseCount(), "times parsed on the cached path");
+        assertEquals(programs, shuffled);
+        for (Record record : records) {
+            assertEquals(Record.RECORD_PENDING, record.getStatus());
+        }
+        // the time append of the preferences is kept too
+        assertSame(Record.getTimeAppend(), Record.getTimeAppend());
+    }
+
+}